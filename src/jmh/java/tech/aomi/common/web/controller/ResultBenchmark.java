@@ -0,0 +1,182 @@
+package tech.aomi.common.web.controller;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import tech.aomi.common.exception.ErrorCode;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Result} 创建及多次 getBody 的开销，与优化前的实现对比
+ * Spring 写出一个响应时会多次调用 getBody，这里按3次计算；
+ * enumStatus 对比自定义枚举状态码按类缓存与每次反射调用 getCode
+ * <p>
+ * ./gradlew jmh -PjmhIncludes=ResultBenchmark
+ *
+ * @author Sean
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResultBenchmark {
+
+    private static final int GET_BODY_CALLS = 3;
+
+    private final Map<String, Object> payload = Map.of("id", 1, "name", "aomi");
+
+    @Benchmark
+    public void success(Blackhole blackhole) {
+        Result result = Result.create(ErrorCode.SUCCESS.getCode(), null, payload);
+        for (int i = 0; i < GET_BODY_CALLS; i++) {
+            blackhole.consume(result.getBody());
+        }
+        blackhole.consume(result.getHeaders());
+    }
+
+    @Benchmark
+    public void successLegacy(Blackhole blackhole) {
+        LegacyResult result = new LegacyResult(ErrorCode.SUCCESS.getCode(), null, payload);
+        for (int i = 0; i < GET_BODY_CALLS; i++) {
+            blackhole.consume(result.getBody());
+        }
+        blackhole.consume(result.getHeaders());
+    }
+
+    @Benchmark
+    public void noPayload(Blackhole blackhole) {
+        Result result = Result.create(ErrorCode.PARAMS_ERROR.getCode(), "参数错误");
+        for (int i = 0; i < GET_BODY_CALLS; i++) {
+            blackhole.consume(result.getBody());
+        }
+    }
+
+    @Benchmark
+    public void noPayloadLegacy(Blackhole blackhole) {
+        LegacyResult result = new LegacyResult(ErrorCode.PARAMS_ERROR.getCode(), "参数错误", null);
+        for (int i = 0; i < GET_BODY_CALLS; i++) {
+            blackhole.consume(result.getBody());
+        }
+    }
+
+    @Benchmark
+    public void listAndMap(Blackhole blackhole) {
+        Result result = Result.create(ErrorCode.SUCCESS.getCode(), null, payload);
+        result.add("second");
+        result.put("total", 2);
+        for (int i = 0; i < GET_BODY_CALLS; i++) {
+            blackhole.consume(result.getBody());
+        }
+    }
+
+    @Benchmark
+    public void listAndMapLegacy(Blackhole blackhole) {
+        LegacyResult result = new LegacyResult(ErrorCode.SUCCESS.getCode(), null, payload);
+        result.add("second");
+        result.put("total", 2);
+        for (int i = 0; i < GET_BODY_CALLS; i++) {
+            blackhole.consume(result.getBody());
+        }
+    }
+
+    @Benchmark
+    public void enumStatus(Blackhole blackhole) {
+        blackhole.consume(Result.create(BizStatus.ORDER_NOT_FOUND, "订单不存在", null).getBody());
+    }
+
+    @Benchmark
+    public void enumStatusLegacy(Blackhole blackhole) throws ReflectiveOperationException {
+        // 优化前 Result.create(Serializable, ...) 每次反射查找并调用 getCode
+        Enum<?> status = BizStatus.ORDER_NOT_FOUND;
+        Method method = status.getClass().getMethod("getCode");
+        Object code = method.invoke(status);
+        blackhole.consume(new LegacyResult(code.toString(), "订单不存在", null).getBody());
+    }
+
+    /**
+     * 业务自定义的状态码枚举
+     */
+    public enum BizStatus {
+
+        ORDER_NOT_FOUND("3001"),
+        ORDER_CLOSED("3002");
+
+        private final String code;
+
+        BizStatus(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+    }
+
+    /**
+     * 优化前的 Result 实现
+     */
+    static class LegacyResult extends ResponseEntity<Result.Entity> {
+
+        private final Result.Entity entity;
+
+        private List<Object> listMessage;
+
+        private Map<String, Object> mapMessage;
+
+        LegacyResult(String status, String describe, Object payload) {
+            super(checkHeaders(null), HttpStatus.OK);
+            this.entity = new Result.Entity();
+            this.entity.setStatus(status);
+            this.entity.setDescribe(describe);
+            this.add(payload);
+        }
+
+        void add(Object message) {
+            if (null == this.listMessage) {
+                this.listMessage = new ArrayList<>(5);
+            }
+            if (null != message) {
+                this.listMessage.add(message);
+            }
+        }
+
+        void put(String key, Object value) {
+            if (null == this.mapMessage) {
+                this.mapMessage = new HashMap<>(5);
+            }
+            this.mapMessage.put(key, value);
+        }
+
+        @Override
+        public Result.Entity getBody() {
+            if (null == this.listMessage && null == this.mapMessage) {
+                return this.entity;
+            }
+            ArrayList<Object> result = new ArrayList<>(3);
+            if (null != this.listMessage && !this.listMessage.isEmpty()) {
+                result.addAll(this.listMessage);
+            }
+            if (null != this.mapMessage && !this.mapMessage.isEmpty()) {
+                result.add(this.mapMessage);
+            }
+            if (result.isEmpty()) {
+                this.entity.setPayload(null);
+            } else {
+                this.entity.setPayload(result.size() == 1 ? result.get(0) : result);
+            }
+            return this.entity;
+        }
+
+        private static HttpHeaders checkHeaders(HttpHeaders headers) {
+            HttpHeaders result = new HttpHeaders();
+            result.putAll(Optional.ofNullable(headers).orElse(new HttpHeaders()));
+            result.setContentType(MediaType.APPLICATION_JSON);
+            return result;
+        }
+    }
+}
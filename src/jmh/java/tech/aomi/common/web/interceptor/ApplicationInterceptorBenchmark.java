@@ -0,0 +1,166 @@
+package tech.aomi.common.web.interceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import tech.aomi.common.web.util.HandlerMetadataIndex;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每个请求经过 {@link ApplicationInterceptor} 的开销(preHandle + postHandle + afterCompletion)
+ * legacy: 每次读取 {@link With} 注解并从容器获取拦截器(优化前)；
+ * precompiled: 按处理方法预先解析的拦截器链
+ * <p>
+ * ./gradlew jmh -PjmhIncludes=ApplicationInterceptorBenchmark
+ *
+ * @author Sean
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ApplicationInterceptorBenchmark {
+
+    /**
+     * with: 处理类、方法上都有 {@link With}；without: 没有 {@link With}
+     */
+    @Param({"with", "without"})
+    private String handlerType;
+
+    private HandlerMethod handler;
+
+    private HandlerInterceptor legacy;
+
+    private HandlerInterceptor precompiled;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.registerSingleton("firstInterceptor", FirstInterceptor.class);
+        context.registerSingleton("secondInterceptor", SecondInterceptor.class);
+        context.refresh();
+
+        handler = "with".equals(handlerType)
+                ? new HandlerMethod(new WithController(), WithController.class.getMethod("handle"))
+                : new HandlerMethod(new PlainController(), PlainController.class.getMethod("handle"));
+        legacy = new LegacyApplicationInterceptor(context);
+        precompiled = new ApplicationInterceptor(context, new HandlerMetadataIndex());
+    }
+
+    @Benchmark
+    public boolean legacy() throws Exception {
+        return handle(legacy);
+    }
+
+    @Benchmark
+    public boolean precompiled() throws Exception {
+        return handle(precompiled);
+    }
+
+    private boolean handle(HandlerInterceptor interceptor) throws Exception {
+        boolean result = interceptor.preHandle(null, null, handler);
+        interceptor.postHandle(null, null, handler, null);
+        interceptor.afterCompletion(null, null, handler, null);
+        return result;
+    }
+
+    public static class FirstInterceptor implements HandlerInterceptor {
+    }
+
+    public static class SecondInterceptor implements HandlerInterceptor {
+    }
+
+    @With(FirstInterceptor.class)
+    public static class WithController {
+
+        @With(SecondInterceptor.class)
+        public String handle() {
+            return "ok";
+        }
+    }
+
+    public static class PlainController {
+
+        public String handle() {
+            return "ok";
+        }
+    }
+
+    /**
+     * 优化前的 ApplicationInterceptor
+     */
+    private static class LegacyApplicationInterceptor implements HandlerInterceptor {
+
+        private final ApplicationContext applicationContext;
+
+        private LegacyApplicationInterceptor(ApplicationContext applicationContext) {
+            this.applicationContext = applicationContext;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+            if (!(handler instanceof HandlerMethod handlerMethod)) {
+                return true;
+            }
+            With with = handlerMethod.getBeanType().getAnnotation(With.class);
+            if (preHandlerProcess(with, request, response, handler)) {
+                with = handlerMethod.getMethod().getAnnotation(With.class);
+                return preHandlerProcess(with, request, response, handler);
+            }
+            return false;
+        }
+
+        @Override
+        public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
+            if (!(handler instanceof HandlerMethod handlerMethod)) {
+                return;
+            }
+            postHandlerProcess(handlerMethod.getBeanType().getAnnotation(With.class), request, response, handler, modelAndView);
+            postHandlerProcess(handlerMethod.getMethod().getAnnotation(With.class), request, response, handler, modelAndView);
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+            if (!(handler instanceof HandlerMethod handlerMethod)) {
+                return;
+            }
+            afterCompletionProcess(handlerMethod.getBeanType().getAnnotation(With.class), request, response, handler, ex);
+            afterCompletionProcess(handlerMethod.getMethod().getAnnotation(With.class), request, response, handler, ex);
+        }
+
+        private void afterCompletionProcess(With with, HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+            if (with != null) {
+                for (Class<?> handlerInterceptor : with.value()) {
+                    HandlerInterceptor tmp = (HandlerInterceptor) this.applicationContext.getBean(handlerInterceptor);
+                    tmp.afterCompletion(request, response, handler, ex);
+                }
+            }
+        }
+
+        private void postHandlerProcess(With with, HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
+            if (with != null) {
+                for (Class<?> handlerInterceptor : with.value()) {
+                    HandlerInterceptor tmp = (HandlerInterceptor) this.applicationContext.getBean(handlerInterceptor);
+                    tmp.postHandle(request, response, handler, modelAndView);
+                }
+            }
+        }
+
+        private boolean preHandlerProcess(With with, HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+            if (null != with) {
+                for (Class<?> handlerInterceptor : with.value()) {
+                    HandlerInterceptor tmp = (HandlerInterceptor) this.applicationContext.getBean(handlerInterceptor);
+                    if (!tmp.preHandle(request, response, handler)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
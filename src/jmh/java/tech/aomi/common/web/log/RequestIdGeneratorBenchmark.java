@@ -0,0 +1,47 @@
+package tech.aomi.common.web.log;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求ID生成器与原 UUID.randomUUID().toString().replaceAll("-", "") 的对比
+ * 多线程执行，体现 SecureRandom 的竞争
+ * <p>
+ * ./gradlew jmh -PjmhIncludes=RequestIdGeneratorBenchmark
+ *
+ * @author Sean
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class RequestIdGeneratorBenchmark {
+
+    private final RequestIdGenerator random = RequestIdGenerator.random();
+
+    private final RequestIdGenerator ulid = RequestIdGenerator.ulid();
+
+    private final RequestIdGenerator uuid = RequestIdGenerator.uuid();
+
+    @Benchmark
+    public String legacyUuid() {
+        return UUID.randomUUID().toString().replaceAll("-", "");
+    }
+
+    @Benchmark
+    public String uuid() {
+        return uuid.generate();
+    }
+
+    @Benchmark
+    public String random() {
+        return random.generate();
+    }
+
+    @Benchmark
+    public String ulid() {
+        return ulid.generate();
+    }
+}
@@ -0,0 +1,102 @@
+package tech.aomi.common.web.message;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报文过滤器读取请求体、控制器再读取解密后请求体的开销
+ * legacy: copyToByteArray 读取 + 逐字节读取的包装流(优化前)；
+ * bulk: 按 Content-Length 一次读取 + {@link ByteArrayServletInputStream} 批量读取
+ * <p>
+ * ./gradlew jmh -PjmhIncludes=RequestBodyReadBenchmark
+ *
+ * @author Sean
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RequestBodyReadBenchmark {
+
+    @Param({"204800", "512000"})
+    private int size;
+
+    private byte[] payload;
+
+    /**
+     * 消息转换器每次读取的缓冲区
+     */
+    private final byte[] readBuffer = new byte[8192];
+
+    @Setup
+    public void setup() {
+        payload = new byte[size];
+        ThreadLocalRandom.current().nextBytes(payload);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) throws IOException {
+        byte[] body = StreamUtils.copyToByteArray(new ByteArrayInputStream(payload));
+        consume(new LegacyServletInputStream(body), blackhole);
+    }
+
+    @Benchmark
+    public void bulk(Blackhole blackhole) throws IOException {
+        InputStream input = new ByteArrayInputStream(payload);
+        byte[] body = new byte[payload.length];
+        int n = input.readNBytes(body, 0, body.length);
+        if (n < body.length) {
+            throw new EOFException();
+        }
+        consume(new ByteArrayServletInputStream(body), blackhole);
+    }
+
+    private void consume(InputStream input, Blackhole blackhole) throws IOException {
+        long total = 0;
+        int n;
+        while ((n = input.read(readBuffer, 0, readBuffer.length)) != -1) {
+            total += n;
+        }
+        blackhole.consume(total);
+    }
+
+    /**
+     * 优化前 MessageSignVerifyRequestWrapper 返回的输入流，只实现了 read()
+     */
+    private static class LegacyServletInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream inputStream;
+
+        private LegacyServletInputStream(byte[] body) {
+            this.inputStream = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return false;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+        }
+
+        @Override
+        public int read() {
+            return inputStream.read();
+        }
+    }
+}
@@ -15,6 +15,11 @@ public class HttpHeader {
      */
     public static final String REQUEST_ID = "X-Request-Id";
 
+    /**
+     * 批量报文
+     */
+    public static final String MESSAGE_BATCH = "X-Message-Batch";
+
 }
 
 
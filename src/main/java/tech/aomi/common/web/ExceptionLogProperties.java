@@ -0,0 +1,51 @@
+package tech.aomi.common.web;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.event.Level;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 异常日志配置
+ * 同一异常签名(类别+异常类型)在一个时间窗口内只输出一次堆栈，其余只计数
+ *
+ * @author Sean
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "aomi-tech.autoconfigure.web.exception.log")
+public class ExceptionLogProperties {
+
+    /**
+     * 是否启用采样；关闭时每次异常都输出堆栈
+     */
+    private boolean sampling = true;
+
+    /**
+     * 同一异常签名输出堆栈的时间窗口
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * 最多跟踪的异常签名数，达到后清理已过期的窗口，仍超过时同类别的新签名共用一个窗口
+     */
+    private int maxSignatures = 1024;
+
+    /**
+     * 客户端错误(参数错误、绑定失败等)的日志级别
+     */
+    private Level clientLevel = Level.WARN;
+
+    /**
+     * 业务异常的日志级别
+     */
+    private Level serviceLevel = Level.ERROR;
+
+    /**
+     * 系统异常的日志级别
+     */
+    private Level serverLevel = Level.ERROR;
+
+}
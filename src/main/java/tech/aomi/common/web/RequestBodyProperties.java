@@ -0,0 +1,33 @@
+package tech.aomi.common.web;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 请求体大小限制配置
+ *
+ * @author Sean
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "aomi-tech.autoconfigure.web.body")
+public class RequestBodyProperties {
+
+    /**
+     * 请求体最大大小，超过时直接拒绝；小于0表示不限制
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(50);
+
+    /**
+     * 请求体超过该大小时写入临时文件
+     */
+    private DataSize memoryThreshold = DataSize.ofMegabytes(1);
+
+    /**
+     * 临时文件目录，默认为 java.io.tmpdir
+     */
+    private String tempDir;
+
+}
@@ -0,0 +1,49 @@
+package tech.aomi.common.web;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 接口耗时统计配置
+ *
+ * @author Sean
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "aomi-tech.autoconfigure.web.latency")
+public class RouteLatencyProperties {
+
+    /**
+     * 是否统计接口耗时
+     */
+    private boolean enabled = true;
+
+    /**
+     * 统计的滚动时间窗口
+     */
+    private Duration window = Duration.ofMinutes(1);
+
+    /**
+     * 时间窗口分片数，分片越多窗口滚动越平滑，内存占用越大
+     */
+    private int windowSlots = 6;
+
+    /**
+     * 每个分片的计数分段数，减少并发写入冲突
+     */
+    private int stripes = 2;
+
+    /**
+     * 是否开启JSON查询接口
+     */
+    private boolean endpointEnabled = false;
+
+    /**
+     * JSON查询接口地址
+     */
+    private String endpointPath = "/_latency";
+
+}
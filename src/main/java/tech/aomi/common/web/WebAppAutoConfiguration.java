@@ -1,16 +1,25 @@
 package tech.aomi.common.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.context.request.RequestContextListener;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tech.aomi.common.web.controller.ConstantResultHttpMessageConverter;
+import tech.aomi.common.web.controller.ConstantResultRegistry;
 import tech.aomi.common.web.interceptor.ApplicationInterceptor;
+import tech.aomi.common.web.util.HandlerMetadataIndex;
 
 /**
  * @author Sean sean.snow@live.com
@@ -18,6 +27,8 @@ import tech.aomi.common.web.interceptor.ApplicationInterceptor;
 @Configuration
 @ConditionalOnClass(WebMvcConfigurer.class)
 @ConditionalOnProperty(prefix = "aomi-tech.autoconfigure.web.app", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RequestBodyProperties.class)
+@AutoConfigureBefore(HttpMessageConvertersAutoConfiguration.class)
 public class WebAppAutoConfiguration implements WebMvcConfigurer {
 
     @Autowired
@@ -30,6 +41,29 @@ public class WebAppAutoConfiguration implements WebMvcConfigurer {
     }
 
 
+    @Bean
+    @ConditionalOnMissingBean(HandlerMetadataIndex.class)
+    public HandlerMetadataIndex handlerMetadataIndex() {
+        return new HandlerMetadataIndex();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(ConstantResultRegistry.class)
+    @ConditionalOnProperty(prefix = "aomi-tech.autoconfigure.web.constant-result", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ConstantResultRegistry constantResultRegistry(ObjectMapper objectMapper) {
+        return new ConstantResultRegistry(objectMapper);
+    }
+
+    /**
+     * 替换默认的JSON转换器，常量响应直接写出缓存的字节
+     */
+    @Bean
+    @ConditionalOnBean(ConstantResultRegistry.class)
+    @ConditionalOnMissingBean(MappingJackson2HttpMessageConverter.class)
+    public ConstantResultHttpMessageConverter constantResultHttpMessageConverter(ObjectMapper objectMapper, ConstantResultRegistry constantResultRegistry) {
+        return new ConstantResultHttpMessageConverter(objectMapper, constantResultRegistry);
+    }
+
     /**
      * 拦截所有请求,转换为内部拦截器
      *
@@ -37,7 +71,7 @@ public class WebAppAutoConfiguration implements WebMvcConfigurer {
      */
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new ApplicationInterceptor(applicationContext));
+        registry.addInterceptor(new ApplicationInterceptor(applicationContext, applicationContext.getBean(HandlerMetadataIndex.class)));
     }
 
 }
@@ -1,17 +1,22 @@
 package tech.aomi.common.web;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.boot.autoconfigure.web.servlet.error.ErrorMvcAutoConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.boot.web.servlet.error.ErrorAttributes;
 import org.springframework.boot.web.servlet.error.ErrorController;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import tech.aomi.common.web.controller.ErrorControllerImpl;
+import tech.aomi.common.web.controller.ErrorResponseFilter;
 
 /**
  * web 错误处理bean自动配置
@@ -30,4 +35,16 @@ public class WebErrorConfiguration {
         return new ErrorControllerImpl(errorAttributes, serverProperties.getError());
     }
 
+    /**
+     * 错误响应直接写为JSON，不经过ERROR分发
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = "aomi-tech.autoconfigure.web.error", name = "fast-path", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<ErrorResponseFilter> errorResponseFilter(ObjectMapper objectMapper) {
+        FilterRegistrationBean<ErrorResponseFilter> registration = new FilterRegistrationBean<>(new ErrorResponseFilter(objectMapper));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
 }
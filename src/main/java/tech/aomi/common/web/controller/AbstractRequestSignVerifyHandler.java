@@ -5,13 +5,29 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpInputMessage;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import tech.aomi.common.web.RequestBodyProperties;
+import tech.aomi.common.constant.HttpHeader;
+import tech.aomi.common.web.signature.SignatureService;
+import tech.aomi.common.web.signature.StreamingVerifier;
+import tech.aomi.common.web.util.BufferPool;
+import tech.aomi.common.web.util.HandlerMetadataIndex;
+import tech.aomi.common.web.util.SpooledRequestBody;
 
-import java.io.*;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Base64;
 
 /**
  * @author Sean createAt 2018/6/12
@@ -21,34 +37,106 @@ public abstract class AbstractRequestSignVerifyHandler extends RequestBodyAdvice
 
     public static final int EOF = -1;
 
+    /**
+     * 保存流式验签器的请求属性
+     * 之后的 {@link org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdvice} 可能包装请求，
+     * 读取结束后从请求属性取出验签器完成校验
+     */
+    public static final String VERIFIER_ATTRIBUTE = AbstractRequestSignVerifyHandler.class.getName() + ".VERIFIER";
+
     @Autowired
     protected HttpServletRequest request;
 
     @Autowired
     protected ServerProperties properties;
 
+    /**
+     * 签名服务，缓存已初始化的验签实例，实现 {@link #verify(byte[])} 时使用
+     */
+    protected SignatureService signatureService = SignatureService.shared();
+
+    /**
+     * 请求处理方法注解索引
+     */
+    @Autowired(required = false)
+    protected HandlerMetadataIndex handlerMetadataIndex = new HandlerMetadataIndex();
+
+    /**
+     * 读取请求体使用的缓冲池
+     */
+    protected BufferPool bufferPool = BufferPool.shared();
+
+    /**
+     * 请求体大小限制
+     */
+    @Autowired(required = false)
+    protected RequestBodyProperties bodyProperties = new RequestBodyProperties();
+
+    /**
+     * 子类是否覆盖了 {@link #verify(SpooledRequestBody)}，覆盖时超过内存阈值的请求体才写入临时文件
+     */
+    private final boolean spoolLargeBody = overridesSpooledVerify(ClassUtils.getUserClass(getClass()));
+
     @Override
     public boolean supports(MethodParameter methodParameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
-        EnableSignature typeEnableSignature = methodParameter.getContainingClass().getAnnotation(EnableSignature.class);
-        if (null != typeEnableSignature)
-            return true;
-        EnableSignature enableSignature = methodParameter.getMethodAnnotation(EnableSignature.class);
-        return null != enableSignature;
+        Method method = methodParameter.getMethod();
+        if (null == method) {
+            return AnnotatedElementUtils.hasAnnotation(methodParameter.getContainingClass(), EnableSignature.class);
+        }
+        return handlerMetadataIndex.get(methodParameter.getContainingClass(), method).isSignature();
     }
 
     @Override
     public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        copy(inputMessage.getBody(), outputStream);
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (null != attributes && attributes.getAttribute(VERIFIER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof VerifyingInputStream started
+                && !started.isFinished()) {
+            throw new IllegalArgumentException("签名验证未完成");
+        }
+
+        StreamingVerifier verifier = createVerifier(inputMessage, parameter);
+        if (null != verifier) {
+            long contentLength = inputMessage.getHeaders().getContentLength();
+            long maxSize = null == bodyProperties.getMaxSize() ? -1 : bodyProperties.getMaxSize().toBytes();
+            if (maxSize >= 0 && contentLength > maxSize) {
+                throw new RequestBodyTooLargeException(maxSize);
+            }
+            VerifyingInputStream input = new VerifyingInputStream(inputMessage.getBody(), verifier, getSignature(inputMessage), maxSize);
+            if (null != attributes) {
+                attributes.setAttribute(VERIFIER_ATTRIBUTE, input, RequestAttributes.SCOPE_REQUEST);
+            }
+            return new VerifyingHttpInputMessage(input, inputMessage.getHeaders());
+        }
 
-        byte[] body = outputStream.toByteArray();
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        if (!spoolLargeBody || null == attributes) {
+            // 临时文件无法在请求结束时删除，或子类只能验证字节数组时，直接读取到内存
+            byte[] bytes = SpooledRequestBody.readInMemory(inputMessage.getBody(), contentLength, bodyProperties, bufferPool);
+            verify(bytes);
+            return new HttpInputMessage() {
+                @Override
+                public InputStream getBody() {
+                    return new ByteArrayInputStream(bytes);
+                }
+
+                @Override
+                public HttpHeaders getHeaders() {
+                    return inputMessage.getHeaders();
+                }
+            };
+        }
+
+        SpooledRequestBody body = SpooledRequestBody.read(inputMessage.getBody(), contentLength, bodyProperties, bufferPool);
+        if (!body.isInMemory()) {
+            registerCleanup(attributes, body);
+        }
         verify(body);
 
         return new HttpInputMessage() {
             @Override
             public InputStream getBody() throws IOException {
-                return new ByteArrayInputStream(body);
+                return body.getInputStream();
             }
 
             @Override
@@ -58,17 +146,207 @@ public abstract class AbstractRequestSignVerifyHandler extends RequestBodyAdvice
         };
     }
 
+    /**
+     * 验证签名
+     * 需要限制内存的子类可覆盖此方法，通过 {@link SpooledRequestBody#getInputStream()} 或
+     * {@link SpooledRequestBody#asByteBuffer()} 读取；覆盖后超过内存阈值的请求体保存在临时文件中，
+     * 未覆盖时请求体直接读取到内存，使用 {@link #verify(byte[])}
+     *
+     * @param body 请求体
+     * @throws IOException 读取失败
+     */
+    protected void verify(SpooledRequestBody body) throws IOException {
+        verify(body.toByteArray());
+    }
+
     protected abstract void verify(byte[] body);
 
+    /**
+     * 创建流式验签器
+     * 返回非空时不再缓存请求体，消息转换器读取的同时计算签名，读取结束后、控制器执行前校验签名；
+     * 默认返回null，使用 {@link #verify(byte[])}
+     *
+     * @param inputMessage 请求
+     * @param parameter    参数
+     * @return 流式验签器
+     */
+    protected StreamingVerifier createVerifier(HttpInputMessage inputMessage, MethodParameter parameter) throws IOException {
+        return null;
+    }
+
+    /**
+     * 流式验签使用的签名，默认为Base64编码的 {@link HttpHeader#SIGNATURE} 请求头
+     *
+     * @param inputMessage 请求
+     * @return 签名
+     */
+    protected byte[] getSignature(HttpInputMessage inputMessage) {
+        String sign = inputMessage.getHeaders().getFirst(HttpHeader.SIGNATURE);
+        if (null == sign || sign.isEmpty()) {
+            return null;
+        }
+        try {
+            return Base64.getDecoder().decode(sign);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        finishVerify(inputMessage);
+        return body;
+    }
+
+    @Override
+    public Object handleEmptyBody(Object body, HttpInputMessage inputMessage, MethodParameter parameter, Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+        finishVerify(inputMessage);
+        return body;
+    }
+
+    /**
+     * 完成流式验签
+     * 验签器优先从请求属性取出，请求被之后的Advice包装时也不会跳过校验
+     */
+    private void finishVerify(HttpInputMessage inputMessage) {
+        VerifyingInputStream input = null;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (null != attributes && attributes.getAttribute(VERIFIER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof VerifyingInputStream started) {
+            input = started;
+        } else if (inputMessage instanceof VerifyingHttpInputMessage message) {
+            input = message.input;
+        }
+        if (null == input) {
+            return;
+        }
+        boolean verified;
+        try {
+            verified = input.finish();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("读取请求体失败: " + e.getMessage(), e);
+        }
+        if (!verified) {
+            throw new IllegalArgumentException("签名验证失败");
+        }
+    }
+
+    private static boolean overridesSpooledVerify(Class<?> type) {
+        for (Class<?> c = type; null != c && c != AbstractRequestSignVerifyHandler.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("verify", SpooledRequestBody.class);
+                return true;
+            } catch (NoSuchMethodException ignored) {
+                // 继续查找父类
+            }
+        }
+        return false;
+    }
+
+    private void registerCleanup(RequestAttributes attributes, SpooledRequestBody body) {
+        attributes.registerDestructionCallback(SpooledRequestBody.class.getName() + "@" + System.identityHashCode(body), () -> {
+            try {
+                body.close();
+            } catch (IOException e) {
+                LOGGER.warn("删除请求体临时文件失败: {}", e.getMessage());
+            }
+        }, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private record VerifyingHttpInputMessage(VerifyingInputStream input, HttpHeaders headers) implements HttpInputMessage {
+
+        @Override
+        public InputStream getBody() {
+            return input;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    /**
+     * 读取的同时计算签名
+     * 消息转换器不一定读到流结束，{@link #finish()} 读取剩余数据后校验签名
+     */
+    private static class VerifyingInputStream extends FilterInputStream {
+
+        private final StreamingVerifier verifier;
+
+        private final byte[] signature;
+
+        private final long maxSize;
+
+        private long count;
+
+        private Boolean verified;
 
-    private void copy(InputStream input, OutputStream output) throws IOException {
-        byte[] buffer = new byte[1024 * 128];
+        private VerifyingInputStream(InputStream in, StreamingVerifier verifier, byte[] signature, long maxSize) {
+            super(in);
+            this.verifier = verifier;
+            this.signature = signature;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != EOF) {
+                count(1);
+                verifier.update((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+                verifier.update(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            long total = 0;
+            while (total < n) {
+                int r = read(buffer, 0, (int) Math.min(buffer.length, n - total));
+                if (r == EOF) {
+                    break;
+                }
+                total += r;
+            }
+            return total;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
 
-//        long count = 0;
-        int n;
-        while (EOF != (n = input.read(buffer))) {
-            output.write(buffer, 0, n);
-//            count += n;
+        private void count(int n) {
+            count += n;
+            if (maxSize >= 0 && count > maxSize) {
+                throw new RequestBodyTooLargeException(maxSize);
+            }
+        }
+
+        private boolean isFinished() {
+            return null != verified;
+        }
+
+        private boolean finish() throws IOException {
+            if (null == verified) {
+                byte[] buffer = new byte[1024];
+                while (read(buffer, 0, buffer.length) != EOF) {
+                    // 读取剩余数据
+                }
+                verified = null != signature && verifier.verify(signature);
+            }
+            return verified;
         }
     }
 
@@ -8,6 +8,7 @@ import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 import tech.aomi.common.constant.HttpHeader;
+import tech.aomi.common.web.signature.SignatureService;
 
 /**
  * @author 田尘殇Sean(sean.snow @ live.com) createAt 2018/6/11
@@ -15,6 +16,11 @@ import tech.aomi.common.constant.HttpHeader;
 @Slf4j
 public abstract class AbstractResponseSignHandler implements ResponseBodyAdvice<Result.Entity> {
 
+    /**
+     * 签名服务，缓存已初始化的签名实例，实现 {@link #sign(Result.Entity)} 时使用
+     */
+    protected SignatureService signatureService = SignatureService.shared();
+
     @Override
     public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
         return returnType.getParameterType().equals(Result.class);
@@ -0,0 +1,152 @@
+package tech.aomi.common.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.lang.Nullable;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import tech.aomi.common.constant.HttpHeader;
+import tech.aomi.common.web.signature.SignatureService;
+import tech.aomi.common.web.util.BufferPool;
+import tech.aomi.common.web.util.HandlerMetadataIndex;
+import tech.aomi.common.web.util.PooledByteArrayOutputStream;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * 签名响应消息转换器
+ * {@link EnableSignature} 接口返回的 {@link Result.Entity} 只序列化一次: 序列化到缓冲区，
+ * 对缓冲区签名并设置 {@link HttpHeader#SIGNATURE}，再写出同样的字节，签名内容与实际响应完全一致。
+ * {@link MappingJacksonValue} 包装的 {@link Result.Entity}(如 JsonView)按其视图、过滤器序列化后同样签名，
+ * 签名接口不写出其他未签名的响应。
+ * <p>
+ * 不继承 MappingJackson2HttpMessageConverter，注册为Bean时不会替换Spring Boot的JSON转换器及
+ * {@link ConstantResultHttpMessageConverter}，Boot把它加在默认转换器之前；未使用Boot的转换器自动配置时，
+ * 通过 WebMvcConfigurer#extendMessageConverters 加到转换器列表最前面。
+ * 与 {@link AbstractResponseSignHandler} 二选一使用
+ *
+ * @author Sean
+ */
+@Slf4j
+public abstract class AbstractSignatureHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+
+    /**
+     * 签名服务，实现 {@link #sign(byte[], int, int)} 时使用
+     */
+    protected SignatureService signatureService = SignatureService.shared();
+
+    protected BufferPool bufferPool = BufferPool.shared();
+
+    protected HandlerMetadataIndex handlerMetadataIndex;
+
+    /**
+     * 可选，常量响应直接对预先序列化的字节签名
+     */
+    protected ConstantResultRegistry constantResultRegistry;
+
+    public AbstractSignatureHttpMessageConverter(ObjectMapper objectMapper) {
+        this(objectMapper, new HandlerMetadataIndex());
+    }
+
+    public AbstractSignatureHttpMessageConverter(ObjectMapper objectMapper, HandlerMetadataIndex handlerMetadataIndex) {
+        super(objectMapper, MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.handlerMetadataIndex = handlerMetadataIndex;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return Result.Entity.class.isAssignableFrom(clazz) && isSignatureHandler() && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return Result.Entity.class.isAssignableFrom(clazz) && isSignatureHandler() && super.canWrite(type, clazz, mediaType);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        ObjectWriter writer = getObjectMapper().writer();
+        Object value = object;
+        if (object instanceof MappingJacksonValue container) {
+            // 选择转换器之后 JsonViewResponseBodyAdvice 等可能把响应包装为 MappingJacksonValue
+            value = container.getValue();
+            if (null != container.getSerializationView()) {
+                writer = writer.withView(container.getSerializationView());
+            }
+            if (null != container.getFilters()) {
+                writer = writer.with(container.getFilters());
+            }
+        }
+        if (!(value instanceof Result.Entity)) {
+            throw new HttpMessageNotWritableException("签名接口不支持的响应类型: " + (null == value ? null : value.getClass().getName()));
+        }
+        byte[] cached = value != object || null == constantResultRegistry || !ConstantResultHttpMessageConverter.isUtf8(outputMessage.getHeaders().getContentType())
+                ? null : constantResultRegistry.json(value);
+        if (null != cached) {
+            outputMessage.getHeaders().set(HttpHeader.SIGNATURE, sign(cached, 0, cached.length));
+            outputMessage.getHeaders().setContentLength(cached.length);
+            outputMessage.getBody().write(cached);
+            return;
+        }
+        PooledByteArrayOutputStream buffer = new PooledByteArrayOutputStream(bufferPool, BufferPool.DEFAULT_BUFFER_SIZE);
+        try {
+            writer.writeValue(buffer, value);
+            String sign = sign(buffer.buffer(), 0, buffer.size());
+            outputMessage.getHeaders().set(HttpHeader.SIGNATURE, sign);
+            outputMessage.getHeaders().setContentLength(buffer.size());
+            outputMessage.getBody().write(buffer.buffer(), 0, buffer.size());
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Autowired(required = false)
+    public void setConstantResultRegistry(ConstantResultRegistry constantResultRegistry) {
+        this.constantResultRegistry = constantResultRegistry;
+    }
+
+    /**
+     * 对响应体签名
+     *
+     * @param body   响应体缓冲区
+     * @param offset 起始位置
+     * @param length 长度
+     * @return 签名
+     */
+    protected abstract String sign(byte[] body, int offset, int length);
+
+    /**
+     * 当前请求的处理方法是否启用签名
+     */
+    protected boolean isSignatureHandler() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletRequestAttributes)) {
+            return false;
+        }
+        HttpServletRequest request = servletRequestAttributes.getRequest();
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        return handler instanceof HandlerMethod handlerMethod && handlerMetadataIndex.get(handlerMethod).isSignature();
+    }
+}
@@ -0,0 +1,43 @@
+package tech.aomi.common.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON消息转换器
+ * {@link ConstantResultRegistry} 中注册的常量响应直接写出预先序列化的字节，其他对象与默认转换器一致
+ *
+ * @author Sean
+ */
+public class ConstantResultHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final ConstantResultRegistry constantResultRegistry;
+
+    public ConstantResultHttpMessageConverter(ObjectMapper objectMapper, ConstantResultRegistry constantResultRegistry) {
+        super(objectMapper);
+        this.constantResultRegistry = constantResultRegistry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        byte[] cached = isUtf8(outputMessage.getHeaders().getContentType()) ? constantResultRegistry.json(object) : null;
+        if (null == cached) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        outputMessage.getHeaders().setContentLength(cached.length);
+        outputMessage.getBody().write(cached);
+    }
+
+    static boolean isUtf8(@Nullable MediaType contentType) {
+        return null == contentType || null == contentType.getCharset() || StandardCharsets.UTF_8.equals(contentType.getCharset());
+    }
+}
@@ -0,0 +1,162 @@
+package tech.aomi.common.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import tech.aomi.common.exception.ErrorCode;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 常量响应注册表
+ * 没有payload的 {@link Result.Entity} (如 {@link Result#success()}、参数错误、系统异常) 序列化结果完全相同，
+ * 启动时预先序列化为JSON，报文格式(tech.aomi.common.message.MessageEncodeDecodeService)在报文过滤器初始化时编码，
+ * 写出时直接使用缓存的字节。
+ * <p>
+ * 默认注册 {@link ErrorCode#SUCCESS}、{@link ErrorCode#PARAMS_ERROR}、{@link ErrorCode#EXCEPTION}，
+ * 其他常量响应通过 {@link #register(String, String)} 注册
+ *
+ * @author Sean
+ */
+@Slf4j
+public class ConstantResultRegistry {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Key, Body> bodies = new ConcurrentHashMap<>();
+
+    /**
+     * 按JSON字节查找，数量很少，直接遍历
+     */
+    private volatile Body[] values = new Body[0];
+
+    public ConstantResultRegistry(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        register(ErrorCode.SUCCESS.getCode(), null);
+        register(ErrorCode.PARAMS_ERROR.getCode(), null);
+        register(ErrorCode.EXCEPTION.getCode(), null);
+    }
+
+    /**
+     * 注册一个没有payload的常量响应
+     *
+     * @param status   状态码
+     * @param describe 描述
+     */
+    public synchronized void register(String status, String describe) {
+        Result.Entity entity = newEntity(status, describe);
+        Key key = new Key(entity.getStatus(), describe);
+        if (bodies.containsKey(key)) {
+            return;
+        }
+        Body body;
+        try {
+            body = new Body(key, objectMapper.writeValueAsBytes(entity));
+        } catch (Exception e) {
+            LOGGER.warn("常量响应序列化失败: {}, {}", entity, e.getMessage());
+            return;
+        }
+        bodies.put(key, body);
+        Body[] newValues = Arrays.copyOf(values, values.length + 1);
+        newValues[values.length] = body;
+        values = newValues;
+    }
+
+    /**
+     * @param body 响应对象
+     * @return 预先序列化的JSON，不是常量响应时返回null
+     */
+    public byte[] json(Object body) {
+        Body cached = lookup(body);
+        return null == cached ? null : cached.json;
+    }
+
+    /**
+     * 使用报文编码器预先编码所有常量响应
+     *
+     * @param encoder 编码器，同一个过滤器应始终传入同一个实例
+     */
+    public void prepare(Function<Object, byte[]> encoder) {
+        for (Body body : values) {
+            body.message(encoder);
+        }
+    }
+
+    /**
+     * @param body    响应对象
+     * @param encoder 编码器，与上次使用的不同时重新编码一次并缓存
+     * @return 预先编码的报文格式，不是常量响应时返回null
+     */
+    public byte[] message(Object body, Function<Object, byte[]> encoder) {
+        Body cached = lookup(body);
+        return null == cached ? null : cached.message(encoder);
+    }
+
+    /**
+     * 根据JSON字节查找常量响应，命中时不需要反序列化
+     *
+     * @param json 响应体
+     * @return 新的响应对象，未命中时返回null
+     */
+    public Result.Entity find(byte[] json) {
+        for (Body body : values) {
+            if (Arrays.equals(body.json, json)) {
+                return newEntity(body.key.status, body.key.describe);
+            }
+        }
+        return null;
+    }
+
+    private Body lookup(Object body) {
+        if (!(body instanceof Result.Entity entity) || null != entity.getPayload()) {
+            return null;
+        }
+        return bodies.get(new Key(entity.getStatus(), entity.getDescribe()));
+    }
+
+    private static Result.Entity newEntity(String status, String describe) {
+        Result.Entity entity = new Result.Entity();
+        entity.setStatus(status);
+        entity.setDescribe(describe);
+        return entity;
+    }
+
+    private record Key(String status, String describe) {
+        private Key {
+            Objects.requireNonNull(status);
+        }
+    }
+
+    private static class Body {
+
+        private final Key key;
+
+        private final byte[] json;
+
+        /**
+         * 最近一次使用的编码服务及编码结果
+         */
+        private volatile Encoded encoded;
+
+        private Body(Key key, byte[] json) {
+            this.key = key;
+            this.json = json;
+        }
+
+        private byte[] message(Function<Object, byte[]> encoder) {
+            Encoded current = encoded;
+            if (null != current && current.encoder == encoder) {
+                return current.bytes;
+            }
+            byte[] bytes = encoder.apply(newEntity(key.status, key.describe));
+            encoded = new Encoded(encoder, bytes);
+            return bytes;
+        }
+    }
+
+    private record Encoded(Function<Object, byte[]> encoder, byte[] bytes) {
+    }
+}
@@ -0,0 +1,330 @@
+package tech.aomi.common.web.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.aomi.common.exception.ErrorCode;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 错误响应快速路径
+ * 将 sendError (404/405/415等) 直接写为 {@link Result.Entity} JSON，异常也在此直接转换为响应，
+ * 不再经过容器的ERROR分发和 /error 控制器，也不解析HTML视图。
+ * 常见状态码的响应体在启动时预先序列化
+ *
+ * @author Sean
+ */
+@Slf4j
+public class ErrorResponseFilter extends OncePerRequestFilter {
+
+    /**
+     * 请求属性: 本过滤器转换为响应的异常
+     */
+    public static final String EXCEPTION_ATTRIBUTE = ErrorResponseFilter.class.getName() + ".EXCEPTION";
+
+    private static final int MIN_STATUS = 400;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 按状态码预先序列化的响应体，下标为 status - 400
+     */
+    private final byte[][] bodies = new byte[200][];
+
+    public ErrorResponseFilter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        for (HttpStatus status : HttpStatus.values()) {
+            if (status.isError()) {
+                bodies[status.value() - MIN_STATUS] = serialize(status.value());
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, new ErrorResponseWrapper(response));
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (response.isCommitted() || request.isAsyncStarted()) {
+                throw e;
+            }
+            Throwable cause = e instanceof ServletException && null != e.getCause() ? e.getCause() : e;
+            request.setAttribute(EXCEPTION_ATTRIBUTE, cause);
+            Result result = ExceptionResultHandler.getResult(cause);
+            response.resetBuffer();
+            response.setStatus(result.getStatusCode().value());
+            write(response, objectMapper.writeValueAsBytes(result.getBody()));
+        }
+    }
+
+    /**
+     * 状态码对应的响应体
+     *
+     * @param status HTTP状态码
+     * @return 响应体
+     */
+    protected byte[] getBody(int status) {
+        if (status < MIN_STATUS || status >= MIN_STATUS + bodies.length) {
+            return serialize(status);
+        }
+        byte[] body = bodies[status - MIN_STATUS];
+        if (null == body) {
+            body = serialize(status);
+            bodies[status - MIN_STATUS] = body;
+        }
+        return body;
+    }
+
+    private byte[] serialize(int status) {
+        HttpStatus httpStatus = HttpStatus.resolve(status);
+        Result.Entity entity = new Result.Entity();
+        entity.setStatus(status == HttpStatus.BAD_REQUEST.value() ? ErrorCode.PARAMS_ERROR.getCode() : ErrorCode.EXCEPTION.getCode());
+        entity.setDescribe(null == httpStatus ? String.valueOf(status) : httpStatus.getReasonPhrase());
+        try {
+            return objectMapper.writeValueAsBytes(entity);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void write(HttpServletResponse response, byte[] body) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        try {
+            response.getOutputStream().write(body);
+        } catch (IllegalStateException e) {
+            // 已经使用过 getWriter
+            response.getWriter().write(new String(body, StandardCharsets.UTF_8));
+        }
+        response.flushBuffer();
+    }
+
+    /**
+     * sendError 写出错误响应后即结束响应，与容器的 sendError 一致，之后的输出全部丢弃
+     */
+    private class ErrorResponseWrapper extends HttpServletResponseWrapper {
+
+        private volatile boolean finished;
+
+        private ServletOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        private ErrorResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            sendError(sc, null);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            if (finished) {
+                return;
+            }
+            if (isCommitted() || sc < MIN_STATUS) {
+                super.sendError(sc, msg);
+                return;
+            }
+            LOGGER.debug("错误响应: {}, {}", sc, msg);
+            resetBuffer();
+            setStatus(sc);
+            write((HttpServletResponse) getResponse(), getBody(sc));
+            finished = true;
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            if (!finished) {
+                super.sendRedirect(location);
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (null == outputStream) {
+                outputStream = new FinishableOutputStream(this, finished ? null : super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (null == writer) {
+                writer = new PrintWriter(new FinishableWriter(this, finished ? null : super.getWriter()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            if (!finished) {
+                super.setStatus(sc);
+            }
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            if (!finished) {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (!finished) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public void setContentType(String type) {
+            if (!finished) {
+                super.setContentType(type);
+            }
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (!finished) {
+                super.resetBuffer();
+            }
+        }
+
+        @Override
+        public void reset() {
+            if (!finished) {
+                super.reset();
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!finished) {
+                super.flushBuffer();
+            }
+        }
+    }
+
+    /**
+     * 响应结束后丢弃写入的数据
+     */
+    private static class FinishableOutputStream extends ServletOutputStream {
+
+        private final ErrorResponseWrapper response;
+
+        private final ServletOutputStream delegate;
+
+        private FinishableOutputStream(ErrorResponseWrapper response, ServletOutputStream delegate) {
+            this.response = response;
+            this.delegate = delegate;
+        }
+
+        private boolean discard() {
+            return null == delegate || response.finished;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!discard()) {
+                delegate.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!discard()) {
+                delegate.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!discard()) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!discard()) {
+                delegate.close();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return discard() || delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (null != delegate) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+
+    /**
+     * 响应结束后丢弃写入的字符
+     */
+    private static class FinishableWriter extends Writer {
+
+        private final ErrorResponseWrapper response;
+
+        private final Writer delegate;
+
+        private FinishableWriter(ErrorResponseWrapper response, Writer delegate) {
+            this.response = response;
+            this.delegate = delegate;
+        }
+
+        private boolean discard() {
+            return null == delegate || response.finished;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (!discard()) {
+                delegate.write(cbuf, off, len);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            if (!discard()) {
+                delegate.write(str, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!discard()) {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!discard()) {
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package tech.aomi.common.web.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import tech.aomi.common.web.ExceptionLogProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异常日志采样
+ * 同一异常签名(类别+异常类型)每个时间窗口只输出一次堆栈，并附带上个窗口内被忽略的次数；
+ * 被忽略的异常只在DEBUG级别输出消息。热路径只有CAS和计数，不加锁，也不读取异常堆栈；
+ * 签名数达到上限时清理已过期的窗口
+ *
+ * @author Sean
+ */
+public class ExceptionLogger {
+
+    public enum Category {
+        /**
+         * 客户端错误，如参数错误
+         */
+        CLIENT,
+        /**
+         * 业务异常
+         */
+        SERVICE,
+        /**
+         * 系统异常
+         */
+        SERVER
+    }
+
+    private final Logger logger;
+
+    private final Map<Signature, Window> windows = new ConcurrentHashMap<>();
+
+    private final Window[] overflow = new Window[Category.values().length];
+
+    /**
+     * 上次清理过期窗口的时间，每个时间窗口最多清理一次
+     */
+    private final AtomicLong lastSweep = new AtomicLong();
+
+    private final LongAdder[] loggedCount = new LongAdder[Category.values().length];
+
+    private final LongAdder[] suppressedCount = new LongAdder[Category.values().length];
+
+    private volatile Settings settings;
+
+    public ExceptionLogger(Logger logger) {
+        this.logger = logger;
+        for (int i = 0; i < overflow.length; i++) {
+            loggedCount[i] = new LongAdder();
+            suppressedCount[i] = new LongAdder();
+        }
+        configure(new ExceptionLogProperties());
+    }
+
+    /**
+     * 更新配置，已有的窗口全部清空
+     *
+     * @param properties 配置
+     */
+    public void configure(ExceptionLogProperties properties) {
+        Settings newSettings = new Settings(properties);
+        for (int i = 0; i < overflow.length; i++) {
+            overflow[i] = new Window(System.nanoTime() - newSettings.windowNanos);
+        }
+        this.settings = newSettings;
+        windows.clear();
+        lastSweep.set(System.nanoTime());
+    }
+
+    /**
+     * 输出异常日志
+     *
+     * @param category 异常类别
+     * @param e        异常
+     * @param format   日志格式
+     * @param arg      日志参数
+     */
+    public void log(Category category, Throwable e, String format, Object arg) {
+        Settings s = this.settings;
+        Level level = s.levels[category.ordinal()];
+        if (!logger.isEnabledForLevel(level)) {
+            return;
+        }
+        if (!s.sampling) {
+            loggedCount[category.ordinal()].increment();
+            logger.atLevel(level).setCause(e).log(format, arg);
+            return;
+        }
+
+        long now = System.nanoTime();
+        long suppressed = window(category, e, s, now).tryAcquire(now, s.windowNanos);
+        if (suppressed < 0) {
+            suppressedCount[category.ordinal()].increment();
+            if (logger.isDebugEnabled()) {
+                logger.debug(format, arg);
+            }
+            return;
+        }
+        loggedCount[category.ordinal()].increment();
+        if (suppressed == 0) {
+            logger.atLevel(level).setCause(e).log(format, arg);
+        } else {
+            logger.atLevel(level).setCause(e).log(format + " (同类异常已忽略{}次)", arg, suppressed);
+        }
+    }
+
+    /**
+     * @return 输出了堆栈的次数
+     */
+    public long getLoggedCount(Category category) {
+        return loggedCount[category.ordinal()].sum();
+    }
+
+    /**
+     * @return 被忽略的次数
+     */
+    public long getSuppressedCount(Category category) {
+        return suppressedCount[category.ordinal()].sum();
+    }
+
+    private Window window(Category category, Throwable e, Settings s, long now) {
+        Signature signature = new Signature(category, e.getClass());
+        Window window = windows.get(signature);
+        if (null != window) {
+            return window;
+        }
+        if (windows.size() >= s.maxSignatures && (!sweep(s, now) || windows.size() >= s.maxSignatures)) {
+            return overflow[category.ordinal()];
+        }
+        window = new Window(now - s.windowNanos);
+        Window existing = windows.putIfAbsent(signature, window);
+        return null == existing ? window : existing;
+    }
+
+    /**
+     * 清理已过期的窗口，过期窗口下次出现时本来就会输出堆栈，清理后只丢失上个窗口忽略的次数
+     *
+     * @return 是否执行了清理
+     */
+    private boolean sweep(Settings s, long now) {
+        long last = lastSweep.get();
+        if (now - last < s.windowNanos || !lastSweep.compareAndSet(last, now)) {
+            return false;
+        }
+        windows.values().removeIf(window -> now - window.start.get() >= s.windowNanos);
+        return true;
+    }
+
+    private record Signature(Category category, Class<?> type) {
+    }
+
+    private static final class Window {
+
+        private final AtomicLong start;
+
+        private final AtomicLong suppressed = new AtomicLong();
+
+        private Window(long start) {
+            this.start = new AtomicLong(start);
+        }
+
+        /**
+         * @return 窗口已过期并成功开启新窗口时返回上个窗口忽略的次数，否则返回-1
+         */
+        private long tryAcquire(long now, long windowNanos) {
+            long s = start.get();
+            if (now - s >= windowNanos && start.compareAndSet(s, now)) {
+                return suppressed.getAndSet(0);
+            }
+            suppressed.incrementAndGet();
+            return -1;
+        }
+    }
+
+    private static final class Settings {
+
+        private final boolean sampling;
+
+        private final long windowNanos;
+
+        private final int maxSignatures;
+
+        private final Level[] levels;
+
+        private Settings(ExceptionLogProperties properties) {
+            this.sampling = properties.isSampling();
+            this.windowNanos = null == properties.getWindow() ? 0 : properties.getWindow().toNanos();
+            this.maxSignatures = properties.getMaxSignatures();
+            this.levels = new Level[]{properties.getClientLevel(), properties.getServiceLevel(), properties.getServerLevel()};
+        }
+    }
+}
@@ -11,19 +11,28 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 import tech.aomi.common.exception.ErrorCode;
 import tech.aomi.common.exception.ServiceException;
 import tech.aomi.common.utils.MapBuilder;
+import tech.aomi.common.web.ExceptionLogProperties;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Slf4j
 public class ExceptionResultHandler {
 
+    /**
+     * 按异常类名注册的处理，查找时沿继承链匹配；首次处理某类异常后再修改不会生效，请使用 {@link #register(Class, Function)}
+     */
     public static final Map<String, Function<Throwable, Result>> HANDLERS = MapBuilder.<String, Function<Throwable, Result>>builder()
             .put(IllegalArgumentException.class.getName(), ExceptionResultHandler::illegalArgumentException)
             .put(ServletRequestBindingException.class.getName(), ExceptionResultHandler::illegalArgumentException)
             .put(HttpMessageNotReadableException.class.getName(), ExceptionResultHandler::illegalArgumentException)
+            .put(RequestBodyTooLargeException.class.getName(), ExceptionResultHandler::illegalArgumentException)
 
             .put(MethodArgumentTypeMismatchException.class.getName(), (t) -> methodArgumentTypeMismatchException((MethodArgumentTypeMismatchException) t))
 
@@ -34,18 +43,109 @@ public class ExceptionResultHandler {
 
             .build();
 
+    /**
+     * 通过 {@link #register(Class, Function)} 注册的处理，优先于 {@link #HANDLERS}
+     */
+    private static final Map<Class<?>, Function<Throwable, Result>> TYPED_HANDLERS = new ConcurrentHashMap<>();
+
+    private static final ExceptionResultHandlerRegistrar.Registry REGISTRY = new ExceptionResultHandlerRegistrar.Registry() {
+        @Override
+        public <T extends Throwable> ExceptionResultHandlerRegistrar.Registry register(Class<T> type, Function<? super T, Result> handler) {
+            ExceptionResultHandler.register(type, handler);
+            return this;
+        }
+    };
+
+    /**
+     * 每个异常类型只沿继承链查找一次，注册新的处理时整体替换
+     */
+    private static volatile ClassValue<Function<Throwable, Result>> dispatch = newDispatch();
+
+    static {
+        // 单个扩展加载或注册失败只记录日志，不能导致本类初始化失败
+        Iterator<ExceptionResultHandlerRegistrar> registrars = ServiceLoader.load(ExceptionResultHandlerRegistrar.class, ExceptionResultHandler.class.getClassLoader()).iterator();
+        while (true) {
+            ExceptionResultHandlerRegistrar registrar;
+            try {
+                if (!registrars.hasNext()) {
+                    break;
+                }
+                registrar = registrars.next();
+            } catch (ServiceConfigurationError e) {
+                LOGGER.error("加载异常处理扩展失败: {}", e.getMessage(), e);
+                continue;
+            }
+            try {
+                registrar.registerHandlers(REGISTRY);
+            } catch (RuntimeException e) {
+                LOGGER.error("注册异常处理扩展失败: {}, {}", registrar.getClass().getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 采样输出异常日志，通过 {@link #configureLogging(ExceptionLogProperties)} 配置
+     */
+    private static final ExceptionLogger EXCEPTION_LOGGER = new ExceptionLogger(LOGGER);
+
     public static Result getResult(Throwable t) {
-        Function<Throwable, Result> handler = HANDLERS.getOrDefault(t.getClass().getName(), ExceptionResultHandler::exception);
-        return handler.apply(t);
+        return dispatch.get(t.getClass()).apply(t);
+    }
+
+    /**
+     * 注册异常处理，同样作用于该异常的子类
+     *
+     * @param type    异常类型
+     * @param handler 处理方法
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Throwable> void register(Class<T> type, Function<? super T, Result> handler) {
+        TYPED_HANDLERS.put(type, t -> handler.apply((T) t));
+        dispatch = newDispatch();
+    }
+
+    /**
+     * 执行注册扩展
+     *
+     * @param registrar 注册扩展
+     */
+    public static void register(ExceptionResultHandlerRegistrar registrar) {
+        registrar.registerHandlers(REGISTRY);
+    }
+
+    public static void configureLogging(ExceptionLogProperties properties) {
+        EXCEPTION_LOGGER.configure(properties);
+    }
+
+    public static ExceptionLogger getExceptionLogger() {
+        return EXCEPTION_LOGGER;
+    }
+
+    private static ClassValue<Function<Throwable, Result>> newDispatch() {
+        return new ClassValue<>() {
+            @Override
+            protected Function<Throwable, Result> computeValue(Class<?> type) {
+                for (Class<?> c = type; null != c && Throwable.class.isAssignableFrom(c); c = c.getSuperclass()) {
+                    Function<Throwable, Result> handler = TYPED_HANDLERS.get(c);
+                    if (null == handler) {
+                        handler = HANDLERS.get(c.getName());
+                    }
+                    if (null != handler) {
+                        return handler;
+                    }
+                }
+                return ExceptionResultHandler::exception;
+            }
+        };
     }
 
     public static Result illegalArgumentException(Throwable e) {
-        LOGGER.error("参数错误异常: {}", e.getMessage(), e);
+        EXCEPTION_LOGGER.log(ExceptionLogger.Category.CLIENT, e, "参数错误异常: {}", e.getMessage());
         return Result.create(ErrorCode.PARAMS_ERROR, e.getMessage(), null);
     }
 
     public static Result methodArgumentTypeMismatchException(MethodArgumentTypeMismatchException e) {
-        LOGGER.error("MethodArgumentTypeMismatchException错误异常: {}", e.getMessage(), e);
+        EXCEPTION_LOGGER.log(ExceptionLogger.Category.CLIENT, e, "MethodArgumentTypeMismatchException错误异常: {}", e.getMessage());
         Map<String, Object> args = new HashMap<>();
         args.put("name", e.getName());
         args.put("parameter", e.getParameter());
@@ -53,7 +153,7 @@ public class ExceptionResultHandler {
     }
 
     public static Result missingServletRequestParameterException(MissingServletRequestParameterException e) {
-        LOGGER.error("MissingServletRequestParameterException错误异常: {}", e.getMessage(), e);
+        EXCEPTION_LOGGER.log(ExceptionLogger.Category.CLIENT, e, "MissingServletRequestParameterException错误异常: {}", e.getMessage());
         Map<String, Object> args = new HashMap<>();
         args.put("parameterName", e.getParameterName());
         args.put("parameterType", e.getParameterType());
@@ -61,7 +161,7 @@ public class ExceptionResultHandler {
     }
 
     public static Result bindException(BindException e) {
-        LOGGER.error("BindException错误异常: {}", e.getMessage(), e);
+        EXCEPTION_LOGGER.log(ExceptionLogger.Category.CLIENT, e, "BindException错误异常: {}", e.getMessage());
         List<FieldError> errors = e.getFieldErrors();
         Map<String, String> errorMsg = new HashMap<>();
         errors.forEach(fieldError -> errorMsg.put(fieldError.getField(), fieldError.getDefaultMessage()));
@@ -69,7 +169,7 @@ public class ExceptionResultHandler {
     }
 
     public static Result methodArgumentNotValidException(MethodArgumentNotValidException e) {
-        LOGGER.error("MethodArgumentNotValidException错误异常: {}", e.getMessage(), e);
+        EXCEPTION_LOGGER.log(ExceptionLogger.Category.CLIENT, e, "MethodArgumentNotValidException错误异常: {}", e.getMessage());
         Map<String, Object> args = new HashMap<>();
         for (FieldError error : e.getBindingResult().getFieldErrors()) {
             args.put(error.getField(), error.getDefaultMessage());
@@ -78,7 +178,7 @@ public class ExceptionResultHandler {
     }
 
     public static Result servicesException(ServiceException ex) {
-        LOGGER.error("控制器发生异常: [{}]", ex.getMessage(), ex);
+        EXCEPTION_LOGGER.log(ExceptionLogger.Category.SERVICE, ex, "控制器发生异常: [{}]", ex.getMessage());
         return Result.create(ex.getErrorCode(), ex.getMessage(), ex.getPayload());
     }
 
@@ -87,7 +187,7 @@ public class ExceptionResultHandler {
         if (ex instanceof ServiceException) {
             return servicesException((ServiceException) ex);
         }
-        LOGGER.error("请求执行错误:{}", ex.getMessage(), ex);
+        EXCEPTION_LOGGER.log(ExceptionLogger.Category.SERVER, ex, "请求执行错误:{}", ex.getMessage());
         return Result.create(ErrorCode.EXCEPTION, ex.getMessage(), null);
     }
 
@@ -0,0 +1,30 @@
+package tech.aomi.common.web.controller;
+
+import java.util.function.Function;
+
+/**
+ * 异常处理注册扩展
+ * 通过 {@link java.util.ServiceLoader} (META-INF/services) 或注册为Spring Bean 生效，
+ * 注册的处理同样作用于子类异常，不需要修改 {@link ExceptionResultHandler#HANDLERS}
+ *
+ * @author Sean
+ */
+public interface ExceptionResultHandlerRegistrar {
+
+    /**
+     * 注册异常处理
+     *
+     * @param registry 注册器
+     */
+    void registerHandlers(Registry registry);
+
+    interface Registry {
+
+        /**
+         * @param type    异常类型，包含其子类
+         * @param handler 处理方法
+         * @return this
+         */
+        <T extends Throwable> Registry register(Class<T> type, Function<? super T, Result> handler);
+    }
+}
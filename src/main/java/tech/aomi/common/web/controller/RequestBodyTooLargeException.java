@@ -0,0 +1,21 @@
+package tech.aomi.common.web.controller;
+
+import lombok.Getter;
+
+/**
+ * 请求体超过大小限制
+ *
+ * @author Sean
+ */
+@Getter
+public class RequestBodyTooLargeException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 4619713263452189713L;
+
+    private final long maxSize;
+
+    public RequestBodyTooLargeException(long maxSize) {
+        super("请求体超过最大限制: " + maxSize);
+        this.maxSize = maxSize;
+    }
+}
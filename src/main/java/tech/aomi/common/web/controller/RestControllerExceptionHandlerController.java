@@ -2,8 +2,10 @@ package tech.aomi.common.web.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.BindException;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import tech.aomi.common.exception.ServiceException;
+import tech.aomi.common.web.ExceptionLogProperties;
 
 /**
  * Rest Controller 控制器异常处理控制器
@@ -23,10 +26,16 @@ import tech.aomi.common.exception.ServiceException;
 @Slf4j
 @Configuration
 @RestControllerAdvice
+@EnableConfigurationProperties(ExceptionLogProperties.class)
 @ConditionalOnClass(HttpServletRequest.class)
 @ConditionalOnProperty(prefix = "aomi-tech.autoconfigure.web.exception", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class RestControllerExceptionHandlerController {
 
+    public RestControllerExceptionHandlerController(ObjectProvider<ExceptionResultHandlerRegistrar> registrars, ExceptionLogProperties exceptionLogProperties) {
+        ExceptionResultHandler.configureLogging(exceptionLogProperties);
+        registrars.orderedStream().forEach(ExceptionResultHandler::register);
+    }
+
     @ExceptionHandler({IllegalArgumentException.class, ServletRequestBindingException.class, HttpMessageNotReadableException.class})
     public Result illegalArgumentException(Exception e) {
         return ExceptionResultHandler.getResult(e);
@@ -20,12 +20,56 @@ import java.util.*;
  */
 public class Result extends ResponseEntity<Result.Entity> {
 
+    /**
+     * 没有自定义响应头时共享的只读响应头
+     */
+    private static final HttpHeaders JSON_HEADERS;
+
+    static {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        JSON_HEADERS = HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * 枚举状态码缓存，按ordinal保存每个枚举常量的 getCode() 结果，没有 getCode() 或调用失败时使用 toString()
+     */
+    private static final ClassValue<String[]> ENUM_CODES = new ClassValue<>() {
+        @Override
+        protected String[] computeValue(Class<?> type) {
+            Object[] constants = type.getEnumConstants();
+            Method method = null;
+            try {
+                method = type.getMethod("getCode");
+                method.trySetAccessible();
+            } catch (NoSuchMethodException ignored) {
+            }
+            String[] codes = new String[constants.length];
+            for (int i = 0; i < constants.length; i++) {
+                Object code = null;
+                if (null != method) {
+                    try {
+                        code = method.invoke(constants[i]);
+                    } catch (ReflectiveOperationException | RuntimeException ignored) {
+                    }
+                }
+                codes[i] = null == code ? constants[i].toString() : code.toString();
+            }
+            return codes;
+        }
+    };
+
     private final Entity entity;
 
     private List<Object> listMessage;
 
     private Map<String, Object> mapMessage;
 
+    /**
+     * 响应数据变化后需要重新组装payload
+     */
+    private boolean payloadChanged;
+
     public Result() {
         this(HttpStatus.OK);
     }
@@ -80,12 +124,14 @@ public class Result extends ResponseEntity<Result.Entity> {
      * @param message msg
      */
     public void add(Object message) {
+        if (null == message) {
+            return;
+        }
         if (null == this.listMessage) {
             this.listMessage = new ArrayList<>(5);
         }
-        if (null != message) {
-            this.listMessage.add(message);
-        }
+        this.listMessage.add(message);
+        this.payloadChanged = true;
     }
 
     /**
@@ -99,6 +145,7 @@ public class Result extends ResponseEntity<Result.Entity> {
             this.mapMessage = new HashMap<>(5);
         }
         this.mapMessage.put(key, value);
+        this.payloadChanged = true;
     }
 
     public static Result success() {
@@ -125,37 +172,33 @@ public class Result extends ResponseEntity<Result.Entity> {
         if (status instanceof ErrorCode) {
             return create(((ErrorCode) status).getCode(), describe, payload);
         }
-        if (status instanceof Enum) {
-            try {
-                Method method = status.getClass().getMethod("getCode");
-                Object code = method.invoke(status);
-                return create(code.toString(), describe, payload);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        if (status instanceof Enum<?> e) {
+            return create(ENUM_CODES.get(e.getDeclaringClass())[e.ordinal()], describe, payload);
         }
         return create(status.toString(), describe, payload);
     }
 
     @Override
     public Entity getBody() {
-        if (null == this.listMessage && null == this.mapMessage) {
+        if (!this.payloadChanged) {
             return this.entity;
         }
-        ArrayList<Object> result = new ArrayList<>(3);
+        boolean hasList = null != this.listMessage && !this.listMessage.isEmpty();
+        boolean hasMap = null != this.mapMessage && !this.mapMessage.isEmpty();
 
-        if (null != this.listMessage && !this.listMessage.isEmpty()) {
+        Object payload = null;
+        if (hasList && hasMap) {
+            List<Object> result = new ArrayList<>(this.listMessage.size() + 1);
             result.addAll(this.listMessage);
-        }
-
-        if (null != this.mapMessage && !this.mapMessage.isEmpty()) {
             result.add(this.mapMessage);
+            payload = result;
+        } else if (hasList) {
+            payload = this.listMessage.size() == 1 ? this.listMessage.get(0) : new ArrayList<>(this.listMessage);
+        } else if (hasMap) {
+            payload = this.mapMessage;
         }
-        if (result.isEmpty()) {
-            this.entity.setPayload(null);
-        } else {
-            this.entity.setPayload(result.size() == 1 ? result.get(0) : result);
-        }
+        this.entity.setPayload(payload);
+        this.payloadChanged = false;
         return this.entity;
     }
 
@@ -165,8 +208,11 @@ public class Result extends ResponseEntity<Result.Entity> {
     }
 
     private static HttpHeaders checkHeaders(HttpHeaders headers) {
+        if (null == headers || headers.isEmpty()) {
+            return JSON_HEADERS;
+        }
         HttpHeaders result = new HttpHeaders();
-        result.putAll(Optional.ofNullable(headers).orElse(new HttpHeaders()));
+        result.putAll(headers);
         result.setContentType(MediaType.APPLICATION_JSON);
         return result;
     }
@@ -0,0 +1,244 @@
+package tech.aomi.common.web.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import reactor.core.publisher.Flux;
+import tech.aomi.common.exception.ErrorCode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 流式响应
+ * 先写出 success/status/describe，再逐个序列化payload中的元素，每 {@link #setFlushThreshold(int) flushThreshold} 个元素刷新一次，
+ * 内存占用与数据条数无关。payload支持 {@link Stream}、{@link Iterable}、{@link Iterator}、{@link org.reactivestreams.Publisher} (如Flux)。
+ * <p>
+ * JSON模式输出与 {@link Result} 相同: {"success":true,"status":"0000","describe":null,"payload":[...]}；
+ * NDJSON模式第一行为不含payload的响应信息，之后每行一个元素。
+ * <p>
+ * 响应在异步线程中写出，写出过程中发生异常时只能中断连接；不能与报文签名过滤器一起使用
+ *
+ * @author Sean
+ */
+@Slf4j
+public class StreamingResult extends ResponseEntity<StreamingResponseBody> {
+
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Flux", StreamingResult.class.getClassLoader());
+
+    private static final ObjectMapper DEFAULT_OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private static final HttpHeaders JSON_HEADERS = contentType(MediaType.APPLICATION_JSON);
+
+    private static final HttpHeaders NDJSON_HEADERS = contentType(MediaType.APPLICATION_NDJSON);
+
+    private final Writer writer;
+
+    public StreamingResult(String status, String describe, Object payload) {
+        this(status, describe, payload, false);
+    }
+
+    public StreamingResult(String status, String describe, Object payload, boolean ndjson) {
+        this(new Writer(status, describe, payload, ndjson), ndjson);
+    }
+
+    private StreamingResult(Writer writer, boolean ndjson) {
+        super(writer, ndjson ? NDJSON_HEADERS : JSON_HEADERS, HttpStatus.OK);
+        this.writer = writer;
+    }
+
+    public static StreamingResult success(Object payload) {
+        return create(ErrorCode.SUCCESS.getCode(), null, payload);
+    }
+
+    public static StreamingResult create(String status, String describe, Object payload) {
+        return new StreamingResult(status, describe, payload);
+    }
+
+    /**
+     * @param payload 数据
+     * @return NDJSON格式的成功响应
+     */
+    public static StreamingResult ndjson(Object payload) {
+        return new StreamingResult(ErrorCode.SUCCESS.getCode(), null, payload, true);
+    }
+
+    /**
+     * 每写出多少个元素刷新一次，默认1000
+     */
+    public StreamingResult setFlushThreshold(int flushThreshold) {
+        this.writer.flushThreshold = Math.max(1, flushThreshold);
+        return this;
+    }
+
+    /**
+     * 序列化使用的ObjectMapper，默认使用容器中的ObjectMapper
+     */
+    public StreamingResult setObjectMapper(ObjectMapper objectMapper) {
+        this.writer.objectMapper = objectMapper;
+        return this;
+    }
+
+    private static HttpHeaders contentType(MediaType mediaType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    /**
+     * 在请求线程中获取容器中的ObjectMapper，写出时已不在请求线程
+     */
+    private static ObjectMapper findObjectMapper() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletRequestAttributes) {
+            WebApplicationContext context = RequestContextUtils.findWebApplicationContext(servletRequestAttributes.getRequest());
+            if (null != context) {
+                ObjectMapper objectMapper = context.getBeanProvider(ObjectMapper.class).getIfAvailable();
+                if (null != objectMapper) {
+                    return objectMapper;
+                }
+            }
+        }
+        return DEFAULT_OBJECT_MAPPER;
+    }
+
+    private static Stream<?> toStream(Object payload) {
+        if (null == payload) {
+            return Stream.empty();
+        }
+        if (payload instanceof Stream<?> stream) {
+            return stream;
+        }
+        if (payload instanceof Iterable<?> iterable) {
+            return toStream(iterable.iterator());
+        }
+        if (payload instanceof Iterator<?> iterator) {
+            Stream<?> stream = StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+            return iterator instanceof AutoCloseable closeable ? stream.onClose(() -> closeQuietly(closeable)) : stream;
+        }
+        if (REACTOR_PRESENT && ReactorSupport.isPublisher(payload)) {
+            return ReactorSupport.toStream(payload);
+        }
+        throw new IllegalArgumentException("不支持的流式数据类型: " + payload.getClass().getName());
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            LOGGER.debug("关闭流式数据失败: {}", e.getMessage());
+        }
+    }
+
+    private static class Writer implements StreamingResponseBody {
+
+        private final String status;
+
+        private final String describe;
+
+        private final Object payload;
+
+        private final boolean ndjson;
+
+        private ObjectMapper objectMapper;
+
+        private int flushThreshold = 1000;
+
+        private Writer(String status, String describe, Object payload, boolean ndjson) {
+            this.status = StringUtils.hasLength(status) ? status : ErrorCode.EXCEPTION.getCode();
+            this.describe = describe;
+            this.payload = payload;
+            this.ndjson = ndjson;
+            this.objectMapper = findObjectMapper();
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            try (Stream<?> stream = toStream(payload);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+                // 异常中断时不补全JSON，客户端能发现响应不完整；输出流由容器关闭
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setPrettyPrinter(null);
+                generator.setRootValueSeparator(null);
+                writeEnvelope(generator);
+                if (ndjson) {
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } else {
+                    generator.writeFieldName("payload");
+                    generator.writeStartArray();
+                }
+
+                Iterator<?> iterator = stream.iterator();
+                int count = 0;
+                while (iterator.hasNext()) {
+                    generator.writeObject(iterator.next());
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                    if (++count % flushThreshold == 0) {
+                        generator.flush();
+                    }
+                }
+
+                if (!ndjson) {
+                    generator.writeEndArray();
+                    generator.writeEndObject();
+                }
+                generator.flush();
+                LOGGER.debug("流式响应写出完成: {}", count);
+            }
+        }
+
+        private void writeEnvelope(JsonGenerator generator) throws IOException {
+            generator.writeStartObject();
+            generator.writeBooleanField("success", ErrorCode.SUCCESS.getCode().equals(status));
+            generator.writeStringField("status", status);
+            if (null != describe || includeNull()) {
+                generator.writeStringField("describe", describe);
+            }
+        }
+
+        private boolean includeNull() {
+            JsonInclude.Include include = objectMapper.getSerializationConfig().getDefaultPropertyInclusion().getValueInclusion();
+            return include == JsonInclude.Include.ALWAYS || include == JsonInclude.Include.USE_DEFAULTS;
+        }
+    }
+
+    /**
+     * 隔离reactor依赖，没有reactor时不会加载
+     */
+    private static class ReactorSupport {
+
+        private static final int PREFETCH = 256;
+
+        private static boolean isPublisher(Object payload) {
+            return payload instanceof org.reactivestreams.Publisher;
+        }
+
+        private static Stream<?> toStream(Object payload) {
+            return Flux.from((org.reactivestreams.Publisher<?>) payload).toStream(PREFETCH);
+        }
+    }
+}
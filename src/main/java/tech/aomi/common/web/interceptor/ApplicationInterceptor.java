@@ -2,106 +2,419 @@ package tech.aomi.common.web.interceptor;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.context.ApplicationContext;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
+import tech.aomi.common.web.util.HandlerMetadata;
+import tech.aomi.common.web.util.HandlerMetadataIndex;
 
-import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 注解拦截器实现和总拦截器功能
+ * 每个请求处理方法的拦截器链只解析一次；preHandle 返回false或抛出异常时，
+ * 只有 preHandle 返回true的拦截器会按相反顺序收到 afterCompletion。
+ * {@link With#parallel()} 为true的拦截器组 preHandle 在 {@link #parallelExecutor} 中并行执行
  *
  * @author Sean sean.snow@live.com
  */
+@Slf4j
 public class ApplicationInterceptor implements HandlerInterceptor {
 
+    private static final Chain EMPTY_CHAIN = new Chain(new HandlerInterceptor[0], new int[0], new boolean[0]);
+
     private final ApplicationContext applicationContext;
 
+    private final HandlerMetadataIndex handlerMetadataIndex;
+
+    private final Map<HandlerMetadata, Chain> chains = new ConcurrentHashMap<>();
+
+    /**
+     * 并行执行 preHandle 的线程池，默认使用虚拟线程，不支持时按顺序执行
+     */
+    private volatile ExecutorService parallelExecutor;
+
+    private volatile boolean parallelExecutorResolved;
+
     public ApplicationInterceptor(ApplicationContext applicationContext) {
+        this(applicationContext, new HandlerMetadataIndex());
+    }
+
+    public ApplicationInterceptor(ApplicationContext applicationContext, HandlerMetadataIndex handlerMetadataIndex) {
         this.applicationContext = applicationContext;
+        this.handlerMetadataIndex = handlerMetadataIndex;
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        if (!(handler instanceof HandlerMethod)) {
+        Chain chain = getChain(handler);
+        HandlerInterceptor[] interceptors = chain.interceptors;
+        if (interceptors.length == 0) {
             return true;
         }
+        if (chain.parallel) {
+            return parallelPreHandle(chain, request, response, handler);
+        }
 
-        HandlerMethod handlerMethod = (HandlerMethod) handler;
-        Class<?> handlerType = handlerMethod.getBeanType();
-
-        With with = handlerType.getAnnotation(With.class);
-        if (preHandlerProcess(with, request, response, handler)) {
-
-            Method handlerBeanMethod = handlerMethod.getMethod();
-
-            with = handlerBeanMethod.getAnnotation(With.class);
-
-            return preHandlerProcess(with, request, response, handler);
+        int i = 0;
+        try {
+            for (; i < interceptors.length; i++) {
+                if (!interceptors[i].preHandle(request, response, handler)) {
+                    triggerAfterCompletion(interceptors, i, request, response, handler, null);
+                    return false;
+                }
+            }
+        } catch (Exception ex) {
+            triggerAfterCompletion(interceptors, i, request, response, handler, ex);
+            throw ex;
         }
-        return false;
+        return true;
     }
 
     @Override
     public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
-        if (!(handler instanceof HandlerMethod)) {
-            return;
+        for (HandlerInterceptor interceptor : getChain(handler).interceptors) {
+            interceptor.postHandle(request, response, handler, modelAndView);
         }
-        HandlerMethod handlerMethod = (HandlerMethod) handler;
-        Class<?> handlerType = handlerMethod.getBeanType();
-        With with = handlerType.getAnnotation(With.class);
-        postHandlerProcess(with, request, response, handler, modelAndView);
-        with = handlerMethod.getMethod().getAnnotation(With.class);
-        postHandlerProcess(with, request, response, handler, modelAndView);
     }
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
-        if (!(handler instanceof HandlerMethod)) {
-            return;
-        }
-        HandlerMethod handlerMethod = (HandlerMethod) handler;
-        Class<?> handlerType = handlerMethod.getBeanType();
-        With with = handlerType.getAnnotation(With.class);
-        afterCompletionProcess(with, request, response, handler, ex);
-        with = handlerMethod.getMethod().getAnnotation(With.class);
-        afterCompletionProcess(with, request, response, handler, ex);
+        // 本拦截器 preHandle 返回true时所有拦截器的 preHandle 都已执行
+        HandlerInterceptor[] interceptors = getChain(handler).interceptors;
+        triggerAfterCompletion(interceptors, interceptors.length, request, response, handler, ex);
     }
 
-    private void afterCompletionProcess(With with, HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
-        if (with != null) {
-            Class<?>[] handlerInterceptors = with.value();
-            for (Class<?> handlerInterceptor : handlerInterceptors) {
-                HandlerInterceptor tmp = (HandlerInterceptor) this.applicationContext.getBean(handlerInterceptor);
-                tmp.afterCompletion(request, response, handler, ex);
+    /**
+     * 包含并行组的拦截器链，按组依次执行，记录每个拦截器 preHandle 是否成功
+     */
+    private boolean parallelPreHandle(Chain chain, HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        HandlerInterceptor[] interceptors = chain.interceptors;
+        boolean[] passed = new boolean[interceptors.length];
+        int start = 0;
+        try {
+            for (int g = 0; g < chain.groupEnds.length; g++) {
+                int end = chain.groupEnds[g];
+                boolean result;
+                if (chain.groupParallel[g]) {
+                    result = parallelPreHandle(interceptors, start, end, passed, request, response, handler);
+                } else {
+                    result = true;
+                    for (int i = start; i < end && result; i++) {
+                        result = interceptors[i].preHandle(request, response, handler);
+                        passed[i] = result;
+                    }
+                }
+                if (!result) {
+                    triggerAfterCompletion(interceptors, passed, request, response, handler, null);
+                    return false;
+                }
+                start = end;
             }
+        } catch (Exception ex) {
+            triggerAfterCompletion(interceptors, passed, request, response, handler, ex);
+            throw ex;
         }
+        return true;
     }
 
-    private void postHandlerProcess(With with, HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
-        if (with != null) {
-            Class<?>[] handlerInterceptors = with.value();
-            for (Class<?> handlerInterceptor : handlerInterceptors) {
-                HandlerInterceptor tmp = (HandlerInterceptor) this.applicationContext.getBean(handlerInterceptor);
-                tmp.postHandle(request, response, handler, modelAndView);
+    /**
+     * 并行执行一组拦截器的 preHandle
+     * 按完成顺序取结果，有拦截器返回false或抛出异常时立即取消其余任务(中断正在执行的)，
+     * 并等待已开始执行的任务结束，避免请求结束后任务继续访问请求、响应；
+     * 返回true的拦截器都记录在passed中，由调用方执行 afterCompletion
+     */
+    private boolean parallelPreHandle(HandlerInterceptor[] interceptors, int start, int end, boolean[] passed,
+                                      HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        ExecutorService executor = getParallelExecutor();
+        if (null == executor) {
+            for (int i = start; i < end; i++) {
+                passed[i] = interceptors[i].preHandle(request, response, handler);
+                if (!passed[i]) {
+                    return false;
+                }
             }
+            return true;
         }
+
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executor);
+        List<ParallelTask> tasks = new ArrayList<>(end - start);
+        Throwable failure = null;
+        for (int i = start; i < end; i++) {
+            int index = i;
+            ParallelTask task = new ParallelTask();
+            try {
+                task.future = completionService.submit(() -> {
+                    if (!task.started.compareAndSet(false, true)) {
+                        // 开始执行前已取消
+                        return false;
+                    }
+                    RequestContextHolder.setRequestAttributes(requestAttributes);
+                    if (null != contextMap) {
+                        MDC.setContextMap(contextMap);
+                    }
+                    try {
+                        // 在任务中记录，取消时已执行成功的拦截器也会收到 afterCompletion
+                        passed[index] = interceptors[index].preHandle(request, response, handler);
+                        return passed[index];
+                    } finally {
+                        RequestContextHolder.resetRequestAttributes();
+                        MDC.clear();
+                        task.finished.countDown();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                failure = e;
+                break;
+            }
+            tasks.add(task);
+        }
+
+        boolean result = null == failure;
+        if (!result) {
+            cancel(tasks);
+        }
+        boolean interrupted = false;
+        int remaining = tasks.size();
+        while (remaining > 0) {
+            Future<Boolean> future;
+            try {
+                future = completionService.take();
+            } catch (InterruptedException e) {
+                // 必须等待任务结束
+                interrupted = true;
+                continue;
+            }
+            remaining--;
+            if (future.isCancelled()) {
+                continue;
+            }
+            try {
+                if (Boolean.TRUE.equals(future.get())) {
+                    continue;
+                }
+            } catch (ExecutionException e) {
+                if (null == failure) {
+                    failure = null == e.getCause() ? e : e.getCause();
+                }
+            }
+            if (result) {
+                result = false;
+                cancel(tasks);
+            }
+        }
+        interrupted |= awaitStarted(tasks);
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof Exception exception) {
+            throw exception;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        return result;
     }
 
+    private static void cancel(List<ParallelTask> tasks) {
+        for (ParallelTask task : tasks) {
+            if (!task.future.isDone()) {
+                task.future.cancel(true);
+            }
+        }
+    }
 
-    private boolean preHandlerProcess(With with, HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        if (null != with) {
-            Class<?>[] handlerInterceptors = with.value();
+    /**
+     * 等待已开始执行的任务结束，未开始的任务不会再执行
+     *
+     * @return 等待期间是否被中断
+     */
+    private static boolean awaitStarted(List<ParallelTask> tasks) {
+        boolean interrupted = false;
+        for (ParallelTask task : tasks) {
+            if (task.started.compareAndSet(false, true)) {
+                continue;
+            }
+            while (true) {
+                try {
+                    task.finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        return interrupted;
+    }
 
-            for (Class<?> handlerInterceptor : handlerInterceptors) {
-                HandlerInterceptor tmp = (HandlerInterceptor) this.applicationContext.getBean(handlerInterceptor);
-                boolean tmpResult = tmp.preHandle(request, response, handler);
-                if (!tmpResult) {
-                    return false;
+    /**
+     * @return 并行执行的线程池，虚拟线程不可用且未设置线程池时返回null，按顺序执行
+     */
+    private ExecutorService getParallelExecutor() {
+        if (parallelExecutorResolved) {
+            return parallelExecutor;
+        }
+        synchronized (this) {
+            if (!parallelExecutorResolved) {
+                if (null == parallelExecutor) {
+                    parallelExecutor = newParallelExecutor();
                 }
+                parallelExecutorResolved = true;
             }
+            return parallelExecutor;
+        }
+    }
+
+    private static ExecutorService newParallelExecutor() {
+        try {
+            // 虚拟线程在 Java 21 之前为预览特性
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception | LinkageError e) {
+            // 平台线程数量无法随请求量无限增长，直接在请求线程中按顺序执行
+            LOGGER.debug("虚拟线程不可用, 并行拦截器按顺序执行: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public void setParallelExecutor(ExecutorService parallelExecutor) {
+        synchronized (this) {
+            this.parallelExecutor = parallelExecutor;
+            this.parallelExecutorResolved = null != parallelExecutor;
+        }
+    }
+
+    /**
+     * 按相反顺序执行前 count 个拦截器的 afterCompletion，异常只记录日志，不影响其余拦截器
+     */
+    private void triggerAfterCompletion(HandlerInterceptor[] interceptors, int count, HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        for (int i = count - 1; i >= 0; i--) {
+            afterCompletion(interceptors[i], request, response, handler, ex);
+        }
+    }
+
+    /**
+     * 按相反顺序执行 preHandle 成功的拦截器的 afterCompletion
+     */
+    private void triggerAfterCompletion(HandlerInterceptor[] interceptors, boolean[] passed, HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        for (int i = interceptors.length - 1; i >= 0; i--) {
+            if (passed[i]) {
+                afterCompletion(interceptors[i], request, response, handler, ex);
+            }
+        }
+    }
+
+    private void afterCompletion(HandlerInterceptor interceptor, HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        try {
+            interceptor.afterCompletion(request, response, handler, ex);
+        } catch (Throwable t) {
+            LOGGER.error("HandlerInterceptor.afterCompletion threw exception", t);
+        }
+    }
+
+    private Chain getChain(Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return EMPTY_CHAIN;
+        }
+        HandlerMetadata metadata = handlerMetadataIndex.get(handlerMethod);
+        if (!metadata.hasInterceptors()) {
+            return EMPTY_CHAIN;
+        }
+        Chain chain = chains.get(metadata);
+        if (null == chain) {
+            chain = chains.computeIfAbsent(metadata, this::resolveChain);
+        }
+        return chain;
+    }
+
+    private Chain resolveChain(HandlerMetadata metadata) {
+        Class<? extends HandlerInterceptor>[] types = metadata.getInterceptors();
+        HandlerInterceptor[] interceptors = new HandlerInterceptor[types.length];
+        for (int i = 0; i < types.length; i++) {
+            interceptors[i] = resolve(types[i]);
+        }
+        HandlerMetadata.InterceptorGroup[] groups = metadata.getGroups();
+        int[] groupEnds = new int[groups.length];
+        boolean[] groupParallel = new boolean[groups.length];
+        int end = 0;
+        for (int g = 0; g < groups.length; g++) {
+            end += groups[g].interceptors().length;
+            groupEnds[g] = end;
+            groupParallel[g] = groups[g].parallel();
+        }
+        return new Chain(interceptors, groupEnds, groupParallel);
+    }
+
+    /**
+     * 单例直接缓存实例，其他作用域每次调用时从容器获取
+     */
+    private HandlerInterceptor resolve(Class<? extends HandlerInterceptor> type) {
+        String[] names = applicationContext.getBeanNamesForType(type);
+        if (names.length == 1 && applicationContext.isSingleton(names[0])) {
+            return applicationContext.getBean(names[0], type);
+        }
+        return new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+                return applicationContext.getBean(type).preHandle(request, response, handler);
+            }
+
+            @Override
+            public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception {
+                applicationContext.getBean(type).postHandle(request, response, handler, modelAndView);
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+                applicationContext.getBean(type).afterCompletion(request, response, handler, ex);
+            }
+        };
+    }
+
+    /**
+     * 并行执行的 preHandle 任务
+     */
+    private static final class ParallelTask {
+
+        private final AtomicBoolean started = new AtomicBoolean(false);
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private Future<Boolean> future;
+    }
+
+    /**
+     * 解析后的拦截器链
+     */
+    private static final class Chain {
+
+        private final HandlerInterceptor[] interceptors;
+
+        private final int[] groupEnds;
+
+        private final boolean[] groupParallel;
+
+        private final boolean parallel;
+
+        private Chain(HandlerInterceptor[] interceptors, int[] groupEnds, boolean[] groupParallel) {
+            this.interceptors = interceptors;
+            this.groupEnds = groupEnds;
+            this.groupParallel = groupParallel;
+            boolean any = false;
+            for (boolean p : groupParallel) {
+                any |= p;
+            }
+            this.parallel = any;
         }
-        return true;
     }
 }
@@ -17,4 +17,11 @@ import java.lang.annotation.Target;
 public @interface With {
 
     Class<? extends HandlerInterceptor>[] value() default {};
+
+    /**
+     * 拦截器之间互不依赖时可设置为true，preHandle 并行执行，
+     * 任意一个返回false或抛出异常时取消(中断)其余拦截器，并等待已开始执行的拦截器结束，
+     * preHandle 返回true的拦截器按相反顺序收到 afterCompletion；postHandle、afterCompletion 仍按顺序执行
+     */
+    boolean parallel() default false;
 }
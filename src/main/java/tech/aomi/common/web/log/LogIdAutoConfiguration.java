@@ -1,11 +1,14 @@
 package tech.aomi.common.web.log;
 
+import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -13,6 +16,7 @@ import org.springframework.boot.task.TaskExecutorBuilder;
 import org.springframework.boot.task.TaskExecutorCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
@@ -24,7 +28,6 @@ import tech.aomi.common.constant.HttpHeader;
 
 import java.io.IOException;
 import java.util.Objects;
-import java.util.UUID;
 import java.util.concurrent.Executor;
 
 import static org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME;
@@ -32,17 +35,31 @@ import static org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfi
 @Slf4j
 @Order(Ordered.HIGHEST_PRECEDENCE)
 @Configuration
-@ConditionalOnClass(OncePerRequestFilter.class)
+@ConditionalOnClass({OncePerRequestFilter.class, Filter.class})
 @ConditionalOnProperty(prefix = "aomi-tech.autoconfigure.web.log-id", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Import(RequestIdGeneratorConfiguration.class)
 public class LogIdAutoConfiguration extends OncePerRequestFilter {
 
     private static final String ID = "logId";
 
     private static final String START_AT = "START_AT";
 
+    private RequestIdGenerator requestIdGenerator = RequestIdGenerator.random();
+
+    /**
+     * aomi-tech.autoconfigure.web.log-id.propagation 为 context 时按引用传递 {@link RequestContext}，默认复制MDC
+     */
     @Bean
-    public TaskDecorator mdcTaskDecorator() {
-        return new MDCTaskDecorator(ID);
+    public TaskDecorator mdcTaskDecorator(@Value("${aomi-tech.autoconfigure.web.log-id.propagation:mdc}") String propagation) {
+        if ("context".equalsIgnoreCase(propagation)) {
+            return new RequestContextTaskDecorator(ID, requestIdGenerator);
+        }
+        return new MDCTaskDecorator(ID, requestIdGenerator);
+    }
+
+    @Autowired(required = false)
+    public void setRequestIdGenerator(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
     }
 
     @Override
@@ -53,7 +70,7 @@ public class LogIdAutoConfiguration extends OncePerRequestFilter {
             long start = System.currentTimeMillis();
             String reqId = request.getHeader(HttpHeader.REQUEST_ID);
             if (null == reqId || reqId.isEmpty()) {
-                reqId = UUID.randomUUID().toString().replaceAll("-", "");
+                reqId = requestIdGenerator.generate();
             }
             MDC.put(ID, reqId);
             LOGGER.debug("请求处理开始: {}, {}", start, request.getRequestURI());
@@ -63,7 +80,15 @@ public class LogIdAutoConfiguration extends OncePerRequestFilter {
         }
 
         try {
-            filterChain.doFilter(request, response);
+            Object reqId = request.getAttribute(HttpHeader.REQUEST_ID);
+            RequestContext.call(RequestContext.of(null == reqId ? null : reqId.toString()), () -> {
+                filterChain.doFilter(request, response);
+                return null;
+            });
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
         } finally {
             afterCompletionProcess(request);
         }
@@ -4,20 +4,26 @@ import org.slf4j.MDC;
 import org.springframework.core.task.TaskDecorator;
 
 import java.util.Map;
-import java.util.UUID;
 
 public class MDCTaskDecorator implements TaskDecorator {
 
     private final String id;
 
+    private final RequestIdGenerator requestIdGenerator;
+
     public MDCTaskDecorator(String id) {
+        this(id, RequestIdGenerator.random());
+    }
+
+    public MDCTaskDecorator(String id, RequestIdGenerator requestIdGenerator) {
         this.id = id;
+        this.requestIdGenerator = requestIdGenerator;
     }
 
     @Override
     public Runnable decorate(Runnable runnable) {
         if (null == MDC.get(id)) {
-            MDC.put(id, UUID.randomUUID().toString().replaceAll("-", ""));
+            MDC.put(id, requestIdGenerator.generate());
         }
         Map<String, String> contextMap = MDC.getCopyOfContextMap();
         return () -> {
@@ -0,0 +1,80 @@
+package tech.aomi.common.web.log;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+import tech.aomi.common.constant.HttpHeader;
+
+/**
+ * WebFlux 请求日志追踪ID
+ * 与 {@link LogIdAutoConfiguration} 对应，日志ID保存在Reactor Context中，而不是MDC
+ *
+ * @author Sean
+ */
+@Slf4j
+@Configuration
+@ConditionalOnClass(WebFilter.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(prefix = "aomi-tech.autoconfigure.web.log-id", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Import(RequestIdGeneratorConfiguration.class)
+public class ReactiveLogIdAutoConfiguration implements WebFilter, Ordered {
+
+    /**
+     * Reactor Context 中日志ID的Key
+     */
+    public static final String ID = "logId";
+
+    private RequestIdGenerator requestIdGenerator = RequestIdGenerator.random();
+
+    /**
+     * 从Reactor Context中获取当前请求的日志ID
+     *
+     * @return 日志ID
+     */
+    public static Mono<String> logId() {
+        return Mono.deferContextual(ctx -> Mono.justOrEmpty(logId(ctx)));
+    }
+
+    public static String logId(ContextView ctx) {
+        return ctx.getOrDefault(ID, null);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.currentTimeMillis();
+        String headerId = exchange.getRequest().getHeaders().getFirst(HttpHeader.REQUEST_ID);
+        String reqId = null == headerId || headerId.isEmpty() ? requestIdGenerator.generate() : headerId;
+
+        String uri = exchange.getRequest().getPath().value();
+        LOGGER.debug("请求处理开始: {}, {}, {}", reqId, start, uri);
+        exchange.getResponse().getHeaders().set(HttpHeader.REQUEST_ID, reqId);
+        exchange.getAttributes().put(HttpHeader.REQUEST_ID, reqId);
+
+        return chain.filter(exchange)
+                .doFinally(signalType -> {
+                    long end = System.currentTimeMillis();
+                    LOGGER.debug("请求处理结束: {}, {}, 耗时: {}, {}", reqId, end, end - start, uri);
+                })
+                .contextWrite(ctx -> ctx.put(ID, reqId));
+    }
+
+    @Autowired(required = false)
+    public void setRequestIdGenerator(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,221 @@
+package tech.aomi.common.web.log;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 请求上下文
+ * 不可变对象，只在 {@link #call(RequestContext, Callable)}、{@link #run(RequestContext, Runnable)} 执行期间绑定到当前线程，
+ * 传递到其他线程时传递引用，不复制。
+ * <p>
+ * 运行时支持 ScopedValue (JDK 20 jdk.incubator.concurrent，JDK 21+ java.lang) 时使用 ScopedValue 绑定，
+ * 在 StructuredTaskScope 中fork的任务自动继承；否则使用仅在执行期间有效的ThreadLocal绑定，语义相同。
+ * 日志中通过 {@link RequestContextConverter} 读取，不需要复制到MDC
+ *
+ * @author Sean
+ */
+@Slf4j
+public final class RequestContext {
+
+    private static final Binding BINDING = Binding.create();
+
+    private final String logId;
+
+    private final Map<String, String> attributes;
+
+    private RequestContext(String logId, Map<String, String> attributes) {
+        this.logId = logId;
+        this.attributes = attributes;
+    }
+
+    public static RequestContext of(String logId) {
+        return new RequestContext(logId, Collections.emptyMap());
+    }
+
+    /**
+     * @return 当前线程绑定的上下文，未绑定时返回null
+     */
+    public static RequestContext current() {
+        return BINDING.get();
+    }
+
+    /**
+     * @return 当前日志ID，未绑定时返回null
+     */
+    public static String currentLogId() {
+        RequestContext context = BINDING.get();
+        return null == context ? null : context.logId;
+    }
+
+    /**
+     * 绑定上下文并执行
+     *
+     * @param context 上下文
+     * @param task    任务
+     */
+    public static void run(RequestContext context, Runnable task) {
+        BINDING.run(context, task);
+    }
+
+    /**
+     * 绑定上下文并执行
+     *
+     * @param context 上下文
+     * @param task    任务
+     * @return 任务返回值
+     * @throws Exception 任务抛出的异常
+     */
+    public static <T> T call(RequestContext context, Callable<T> task) throws Exception {
+        Object[] result = new Object[1];
+        Exception[] error = new Exception[1];
+        BINDING.run(context, () -> {
+            try {
+                result[0] = task.call();
+            } catch (Exception e) {
+                error[0] = e;
+            }
+        });
+        if (null != error[0]) {
+            throw error[0];
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    /**
+     * @return 是否使用ScopedValue绑定
+     */
+    public static boolean isScopedValueSupported() {
+        return BINDING instanceof ScopedValueBinding;
+    }
+
+    public String getLogId() {
+        return logId;
+    }
+
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return 增加一个属性后的新上下文，当前对象不变
+     */
+    public RequestContext with(String name, String value) {
+        Map<String, String> newAttributes = new HashMap<>(attributes);
+        newAttributes.put(name, value);
+        return new RequestContext(logId, Collections.unmodifiableMap(newAttributes));
+    }
+
+    @Override
+    public String toString() {
+        return "RequestContext[" + logId + "]";
+    }
+
+    private interface Binding {
+
+        RequestContext get();
+
+        void run(RequestContext context, Runnable task);
+
+        static Binding create() {
+            for (String className : new String[]{"java.lang.ScopedValue", "jdk.incubator.concurrent.ScopedValue"}) {
+                try {
+                    return new ScopedValueBinding(Class.forName(className));
+                } catch (Throwable e) {
+                    LOGGER.trace("ScopedValue不可用: {}, {}", className, e.toString());
+                }
+            }
+            return new ThreadLocalBinding();
+        }
+    }
+
+    private static final class ScopedValueBinding implements Binding {
+
+        private final Object scopedValue;
+
+        private final MethodHandle isBound;
+
+        private final MethodHandle get;
+
+        private final MethodHandle where;
+
+        private final MethodHandle run;
+
+        private ScopedValueBinding(Class<?> type) throws Throwable {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> carrier = Class.forName(type.getName() + "$Carrier");
+            this.scopedValue = lookup.findStatic(type, "newInstance", MethodType.methodType(type)).invoke();
+            this.isBound = lookup.findVirtual(type, "isBound", MethodType.methodType(boolean.class)).bindTo(scopedValue);
+            this.get = lookup.findVirtual(type, "get", MethodType.methodType(Object.class)).bindTo(scopedValue);
+            this.where = MethodHandles.insertArguments(
+                    lookup.findStatic(type, "where", MethodType.methodType(carrier, type, Object.class)), 0, scopedValue);
+            this.run = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class));
+            // 预览API未启用时在此处失败
+            run(RequestContext.of(null), () -> {
+            });
+        }
+
+        @Override
+        public RequestContext get() {
+            try {
+                return (boolean) isBound.invoke() ? (RequestContext) get.invoke() : null;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void run(RequestContext context, Runnable task) {
+            Object carrier;
+            try {
+                carrier = where.invoke((Object) context);
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+            try {
+                run.invoke(carrier, task);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final class ThreadLocalBinding implements Binding {
+
+        private final ThreadLocal<RequestContext> current = new ThreadLocal<>();
+
+        @Override
+        public RequestContext get() {
+            return current.get();
+        }
+
+        @Override
+        public void run(RequestContext context, Runnable task) {
+            RequestContext previous = current.get();
+            current.set(context);
+            try {
+                task.run();
+            } finally {
+                if (null == previous) {
+                    current.remove();
+                } else {
+                    current.set(previous);
+                }
+            }
+        }
+    }
+}
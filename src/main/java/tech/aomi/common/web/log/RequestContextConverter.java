@@ -0,0 +1,26 @@
+package tech.aomi.common.web.log;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Logback日志ID转换器，只在输出日志时读取 {@link RequestContext}，未绑定时读取MDC
+ * <p>
+ * 配置: &lt;conversionRule conversionWord="logId" converterClass="tech.aomi.common.web.log.RequestContextConverter"/&gt;，
+ * 在pattern中使用 %logId。异步Appender在其他线程格式化日志，读取不到上下文，只能使用MDC
+ *
+ * @author Sean
+ */
+public class RequestContextConverter extends ClassicConverter {
+
+    private static final String ID = "logId";
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        String logId = RequestContext.currentLogId();
+        if (null == logId) {
+            logId = event.getMDCPropertyMap().get(ID);
+        }
+        return null == logId ? "" : logId;
+    }
+}
@@ -0,0 +1,133 @@
+package tech.aomi.common.web.log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 结构化并发的任务作用域
+ * fork 的任务按引用继承打开作用域时的 {@link RequestContext}；join 按完成顺序等待全部完成，任一失败时立即取消其余任务；
+ * close 时取消未完成的任务并等待正在执行的任务结束，任务不会超出作用域存活。只能在打开作用域的线程中使用。
+ * <p>
+ * 直接使用JDK的 StructuredTaskScope 时，ScopedValue 绑定会自动继承，不需要本类
+ *
+ * @author Sean
+ */
+public final class RequestContextScope implements AutoCloseable {
+
+    /**
+     * 任务完成时放入完成队列，join 按完成顺序取结果
+     */
+    private final CompletionService<Object> completionService;
+
+    private final RequestContext context;
+
+    private final List<Future<?>> futures = new ArrayList<>();
+
+    private final List<Task> tasks = new ArrayList<>();
+
+    /**
+     * join 已取出的任务数
+     */
+    private int joined;
+
+    private RequestContextScope(ExecutorService executor, RequestContext context) {
+        this.completionService = new ExecutorCompletionService<>(executor);
+        this.context = context;
+    }
+
+    /**
+     * @param executor 执行任务的线程池，建议使用虚拟线程
+     * @return 继承当前上下文的作用域
+     */
+    public static RequestContextScope open(ExecutorService executor) {
+        return new RequestContextScope(executor, RequestContext.current());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Future<T> fork(Callable<T> task) {
+        Task tracker = new Task();
+        Callable<T> bound = null == context ? task : () -> RequestContext.call(context, task);
+        Future<Object> future = completionService.submit(() -> {
+            if (!tracker.started.compareAndSet(false, true)) {
+                // 开始执行前作用域已关闭
+                return null;
+            }
+            try {
+                return bound.call();
+            } finally {
+                tracker.finished.countDown();
+            }
+        });
+        tasks.add(tracker);
+        futures.add(future);
+        return (Future<T>) future;
+    }
+
+    /**
+     * 按完成顺序等待所有任务完成，第一个失败的任务完成时立即取消其余任务
+     *
+     * @throws ExecutionException   任一任务失败，其余任务已取消
+     * @throws InterruptedException 等待时被中断，所有任务已取消
+     */
+    public void join() throws InterruptedException, ExecutionException {
+        try {
+            while (joined < futures.size()) {
+                Future<?> future = completionService.take();
+                joined++;
+                future.get();
+            }
+        } catch (ExecutionException | InterruptedException e) {
+            cancelAll();
+            throw e;
+        }
+    }
+
+    /**
+     * 取消未完成的任务，并等待已开始执行的任务结束；等待期间的中断在返回后恢复
+     */
+    @Override
+    public void close() {
+        cancelAll();
+        boolean interrupted = false;
+        for (Task task : tasks) {
+            if (task.started.compareAndSet(false, true)) {
+                // 未开始的任务不会再执行
+                continue;
+            }
+            while (true) {
+                try {
+                    task.finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cancelAll() {
+        for (Future<?> future : futures) {
+            if (!future.isDone()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static final class Task {
+
+        private final AtomicBoolean started = new AtomicBoolean(false);
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+    }
+}
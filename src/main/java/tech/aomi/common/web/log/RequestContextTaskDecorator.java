@@ -0,0 +1,34 @@
+package tech.aomi.common.web.log;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 按引用传递 {@link RequestContext} 的任务装饰器
+ * 与 {@link MDCTaskDecorator} 不同，不复制MDC，也不在任务结束后清理MDC；
+ * 提交任务的线程没有绑定上下文时，只取MDC中的日志ID创建上下文
+ *
+ * @author Sean
+ */
+public class RequestContextTaskDecorator implements TaskDecorator {
+
+    private final String id;
+
+    private final RequestIdGenerator requestIdGenerator;
+
+    public RequestContextTaskDecorator(String id, RequestIdGenerator requestIdGenerator) {
+        this.id = id;
+        this.requestIdGenerator = requestIdGenerator;
+    }
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestContext context = RequestContext.current();
+        if (null == context) {
+            String logId = MDC.get(id);
+            context = RequestContext.of(null == logId ? requestIdGenerator.generate() : logId);
+        }
+        RequestContext captured = context;
+        return () -> RequestContext.run(captured, runnable);
+    }
+}
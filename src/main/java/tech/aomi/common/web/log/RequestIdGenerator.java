@@ -0,0 +1,54 @@
+package tech.aomi.common.web.log;
+
+/**
+ * 请求ID(日志ID)生成器
+ * 内置实现通过 aomi-tech.autoconfigure.web.log-id.generator 选择，自定义实现注册为Bean即可
+ *
+ * @author Sean
+ */
+@FunctionalInterface
+public interface RequestIdGenerator {
+
+    /**
+     * @return 新的请求ID
+     */
+    String generate();
+
+    /**
+     * ThreadLocalRandom 生成的128位随机数，32位小写十六进制，与原UUID去掉 - 的格式长度一致
+     */
+    static RequestIdGenerator random() {
+        return RequestIdGenerators.RANDOM;
+    }
+
+    /**
+     * ULID: 48位毫秒时间戳 + 80位随机数，26位Crockford Base32，按时间排序
+     */
+    static RequestIdGenerator ulid() {
+        return RequestIdGenerators.ULID;
+    }
+
+    /**
+     * UUID去掉 - ，与旧版本一致，使用SecureRandom
+     */
+    static RequestIdGenerator uuid() {
+        return RequestIdGenerators.UUID;
+    }
+
+    /**
+     * @param name random、ulid、uuid
+     * @return 对应的内置生成器
+     */
+    static RequestIdGenerator of(String name) {
+        if (null == name || name.isEmpty() || "random".equalsIgnoreCase(name)) {
+            return random();
+        }
+        if ("ulid".equalsIgnoreCase(name)) {
+            return ulid();
+        }
+        if ("uuid".equalsIgnoreCase(name)) {
+            return uuid();
+        }
+        throw new IllegalArgumentException("未知的请求ID生成器: " + name);
+    }
+}
@@ -0,0 +1,21 @@
+package tech.aomi.common.web.log;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 请求ID生成器配置，由 {@link LogIdAutoConfiguration}、{@link ReactiveLogIdAutoConfiguration} 导入
+ *
+ * @author Sean
+ */
+@Configuration
+public class RequestIdGeneratorConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(RequestIdGenerator.class)
+    public static RequestIdGenerator requestIdGenerator(Environment environment) {
+        return RequestIdGenerator.of(environment.getProperty("aomi-tech.autoconfigure.web.log-id.generator"));
+    }
+}
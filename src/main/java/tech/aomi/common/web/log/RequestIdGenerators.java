@@ -0,0 +1,67 @@
+package tech.aomi.common.web.log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 内置请求ID生成器，直接编码为字节数组，不产生中间字符串
+ *
+ * @author Sean
+ */
+final class RequestIdGenerators {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.ISO_8859_1);
+
+    private static final byte[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.ISO_8859_1);
+
+    static final RequestIdGenerator RANDOM = RequestIdGenerators::randomHex;
+
+    static final RequestIdGenerator ULID = RequestIdGenerators::ulid;
+
+    static final RequestIdGenerator UUID = RequestIdGenerators::uuid;
+
+    private RequestIdGenerators() {
+    }
+
+    private static String randomHex() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] out = new byte[32];
+        hex(random.nextLong(), out, 0);
+        hex(random.nextLong(), out, 16);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String ulid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        byte[] out = new byte[26];
+        base32(System.currentTimeMillis(), out, 0, 10);
+        base32(random.nextLong(), out, 10, 8);
+        base32(random.nextLong(), out, 18, 8);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String uuid() {
+        java.util.UUID uuid = java.util.UUID.randomUUID();
+        byte[] out = new byte[32];
+        hex(uuid.getMostSignificantBits(), out, 0);
+        hex(uuid.getLeastSignificantBits(), out, 16);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void hex(long value, byte[] out, int offset) {
+        for (int i = offset + 15; i >= offset; i--) {
+            out[i] = HEX[(int) (value & 0xf)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * 取value的低 length*5 位编码为length个字符
+     */
+    private static void base32(long value, byte[] out, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            out[i] = BASE32[(int) (value & 0x1f)];
+            value >>>= 5;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package tech.aomi.common.web.message;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import tech.aomi.common.message.MessageEncodeDecodeService;
+import org.springframework.util.unit.DataSize;
+import tech.aomi.common.web.controller.RequestBodyTooLargeException;
+import tech.aomi.common.web.util.PooledByteArrayOutputStream;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 非阻塞读取请求体的报文签名、验签过滤器
+ * 通过 startAsync + {@link ReadListener} 读取请求体，不占用容器线程等待慢速客户端；
+ * 读取完成后以ASYNC方式重新分发请求，继续 验签-处理-签名 流程。
+ * <p>
+ * 注意: 排在本过滤器之后的过滤器需要能处理ASYNC分发
+ *
+ * @author Sean
+ */
+@Slf4j
+@Getter
+@Setter
+public abstract class AbstractAsyncMessageSignVerifyFilter extends AbstractMessageSignVerifyFilter {
+
+    /**
+     * 请求属性: 异步读取完成的请求体
+     */
+    public static final String REQUEST_BODY = AbstractAsyncMessageSignVerifyFilter.class.getName() + ".REQUEST_BODY";
+
+    /**
+     * 请求属性: 异步读取请求体时发生的异常
+     */
+    public static final String READ_ERROR = AbstractAsyncMessageSignVerifyFilter.class.getName() + ".READ_ERROR";
+
+    /**
+     * 读取请求体超时时间(毫秒)
+     */
+    private long readTimeout = 30000;
+
+    /**
+     * 每次读取的字节数
+     */
+    private int readChunkSize = 8192;
+
+    public AbstractAsyncMessageSignVerifyFilter(MessageEncodeDecodeService messageEncodeDecodeService) {
+        super(messageEncodeDecodeService);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            if (null == request.getAttribute(REQUEST_BODY) && null == request.getAttribute(READ_ERROR)) {
+                // 非本过滤器发起的异步分发
+                filterChain.doFilter(request, response);
+                return;
+            }
+            super.doFilterInternal(request, response, filterChain);
+            return;
+        }
+
+        if ("get".equalsIgnoreCase(request.getMethod()) || !request.isAsyncSupported() || request.getContentLength() == 0) {
+            super.doFilterInternal(request, response, filterChain);
+            return;
+        }
+
+        try {
+            checkContentLength(request);
+        } catch (RequestBodyTooLargeException e) {
+            // 直接走同步流程返回错误
+            super.doFilterInternal(request, response, filterChain);
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(readTimeout);
+        BodyReadListener listener = new BodyReadListener(asyncContext, request.getInputStream(), request.getContentLength());
+        asyncContext.addListener(listener);
+        listener.inputStream.setReadListener(listener);
+    }
+
+    @Override
+    protected byte[] readBody(HttpServletRequest request) throws IOException {
+        Object error = request.getAttribute(READ_ERROR);
+        if (null != error) {
+            request.removeAttribute(READ_ERROR);
+            if (error instanceof RuntimeException e) {
+                throw e;
+            }
+            throw error instanceof IOException ? (IOException) error : new IOException((Throwable) error);
+        }
+        Object body = request.getAttribute(REQUEST_BODY);
+        if (body instanceof byte[] bytes) {
+            request.removeAttribute(REQUEST_BODY);
+            return bytes;
+        }
+        return super.readBody(request);
+    }
+
+    private class BodyReadListener implements ReadListener, AsyncListener {
+
+        private final AsyncContext asyncContext;
+
+        private final ServletInputStream inputStream;
+
+        private final PooledByteArrayOutputStream body;
+
+        private final byte[] buffer;
+
+        private final AtomicBoolean dispatched = new AtomicBoolean(false);
+
+        private final long maxSize;
+
+        private BodyReadListener(AsyncContext asyncContext, ServletInputStream inputStream, int contentLength) {
+            this.asyncContext = asyncContext;
+            this.inputStream = inputStream;
+            // 不按请求头长度预分配，慢速客户端只占用已到达数据的内存
+            this.body = new PooledByteArrayOutputStream(getBufferPool(), contentLength > 0 ? Math.min(contentLength, readChunkSize) : readChunkSize);
+            this.buffer = getBufferPool().acquire(readChunkSize);
+            DataSize max = getRequestBodyProperties().getMaxSize();
+            this.maxSize = null == max ? -1 : max.toBytes();
+        }
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            int n;
+            while (!dispatched.get() && inputStream.isReady() && !inputStream.isFinished()) {
+                n = inputStream.read(buffer);
+                if (n == -1) {
+                    break;
+                }
+                body.write(buffer, 0, n);
+                if (maxSize >= 0 && body.size() > maxSize) {
+                    dispatch(READ_ERROR, new RequestBodyTooLargeException(maxSize));
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onAllDataRead() {
+            byte[] bytes = body.toByteArray();
+            if (dispatch(REQUEST_BODY, bytes)) {
+                // 读取已结束，缓冲区可以安全归还
+                body.release();
+                getBufferPool().release(buffer);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            LOGGER.debug("异步读取请求体失败: {}", t.getMessage());
+            dispatch(READ_ERROR, t);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            dispatch(READ_ERROR, new TimeoutException("读取请求体超时"));
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            onError(event.getThrowable());
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        /**
+         * 异常、超时时可能仍有读取回调在执行，不归还缓冲区
+         */
+        private boolean dispatch(String name, Object value) {
+            if (!dispatched.compareAndSet(false, true)) {
+                return false;
+            }
+            asyncContext.getRequest().setAttribute(name, value);
+            asyncContext.dispatch();
+            return true;
+        }
+    }
+}
@@ -1,112 +1,549 @@
 package tech.aomi.common.web.message;
 
 import jakarta.servlet.FilterChain;
-import jakarta.servlet.ReadListener;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.FilterRegistration;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
-import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
+import tech.aomi.common.constant.HttpHeader;
 import tech.aomi.common.message.MessageEncodeDecodeService;
 import tech.aomi.common.message.MessageService;
 import tech.aomi.common.message.entity.MessageContent;
 import tech.aomi.common.message.entity.RequestMessage;
+import tech.aomi.common.web.RequestBodyProperties;
+import tech.aomi.common.web.controller.ConstantResultRegistry;
 import tech.aomi.common.web.controller.ExceptionResultHandler;
+import tech.aomi.common.web.controller.RequestBodyTooLargeException;
 import tech.aomi.common.web.controller.Result;
 import tech.aomi.common.web.controller.Result.Entity;
+import tech.aomi.common.web.log.RequestContext;
+import tech.aomi.common.web.util.BufferPool;
+import tech.aomi.common.web.util.SpooledRequestBody;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * 报文签名、验签过滤器
+ * 启用 {@link MessageResultCaptureAdvice} 时，控制器返回的 {@link Result.Entity} 直接交给过滤器编码，
+ * 不再经过 序列化-解析-再序列化 的过程
  */
 @Slf4j
 @Getter
-@RequiredArgsConstructor
 public abstract class AbstractMessageSignVerifyFilter extends OncePerRequestFilter {
 
+    /**
+     * 请求属性: 标记当前请求由过滤器处理，需要截获响应实体
+     */
+    public static final String CAPTURE_ENTITY = AbstractMessageSignVerifyFilter.class.getName() + ".CAPTURE_ENTITY";
+
+    /**
+     * 请求属性: 截获的响应实体
+     */
+    public static final String CAPTURED_ENTITY = AbstractMessageSignVerifyFilter.class.getName() + ".CAPTURED_ENTITY";
+
     protected final MessageEncodeDecodeService messageEncodeDecodeService;
 
+    /**
+     * MessageService 缓存，仅在 {@link #getMessageServiceCacheKey} 返回非空时使用
+     */
+    @Setter
+    private MessageServiceCache messageServiceCache = new MessageServiceCache();
+
+    /**
+     * 读取请求体使用的缓冲池
+     */
+    @Setter
+    private BufferPool bufferPool = BufferPool.shared();
+
+    /**
+     * 批量请求最大报文数
+     */
+    @Setter
+    private int maxBatchSize = 1000;
+
+    /**
+     * 批量请求验签、签名线程池，默认为CPU核数的固定线程池，过滤器销毁时关闭；
+     * 通过setter设置的线程池由调用方管理
+     */
+    private volatile ExecutorService batchExecutor;
+
+    @Getter(AccessLevel.NONE)
+    private volatile boolean ownsBatchExecutor;
+
+    /**
+     * 请求体大小限制
+     */
+    private RequestBodyProperties requestBodyProperties = new RequestBodyProperties();
+
+    /**
+     * 常量响应，命中时跳过反序列化、编码
+     */
+    private ConstantResultRegistry constantResultRegistry;
+
+    private final Function<Object, byte[]> resultEncoder;
+
+    public AbstractMessageSignVerifyFilter(MessageEncodeDecodeService messageEncodeDecodeService) {
+        this.messageEncodeDecodeService = messageEncodeDecodeService;
+        this.resultEncoder = messageEncodeDecodeService::message2Byte;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
+        boolean isGet = "get".equalsIgnoreCase(request.getMethod());
+        if (!isGet && isBatchRequest(request)) {
+            doFilterBatch(request, response);
+            return;
+        }
+
         MessageService messageService;
         ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
         try {
             MessageContent content;
-            if ("get".equalsIgnoreCase(request.getMethod())) {
-                Map<String, String> data = new HashMap<>();
-                while (request.getParameterNames().hasMoreElements()) {
-                    String name = request.getParameterNames().nextElement();
-                    String value = request.getParameter(name);
-                    data.put(name, value);
-                }
+            if (isGet) {
+                Map<String, String[]> parameterMap = request.getParameterMap();
+                Map<String, String> data = new HashMap<>((int) (parameterMap.size() / 0.75f) + 1);
+                parameterMap.forEach((name, values) -> data.put(name, null == values || values.length == 0 ? null : values[0]));
                 var message = new RequestMessage(data);
-                messageService = this.getMessageService(request, message);
+                messageService = this.resolveMessageService(request, message);
 
                 content = messageService.parse(message);
             } else {
-                byte[] requestBody = StreamUtils.copyToByteArray(request.getInputStream());
+                byte[] requestBody = readBody(request);
                 var message = this.messageEncodeDecodeService.byte2Message(requestBody, RequestMessage.class);
-                messageService = this.getMessageService(request, message);
+                messageService = this.resolveMessageService(request, message);
                 content = messageService.parse(message);
             }
             request.setAttribute(MessageContent.MESSAGE_CONTEXT, content);
+            request.setAttribute(CAPTURE_ENTITY, Boolean.TRUE);
             byte[] newBody = content.getRequestPayload();
 
-            Map<String, String[]> modifiableParameters = null;
-            if ("get".equalsIgnoreCase(request.getMethod())) {
-                Map<String, String> urlArgs = messageEncodeDecodeService.byte2Message(newBody, HashMap.class);
-                modifiableParameters = new HashMap<>();
-                for (String key : urlArgs.keySet()) {
-                    modifiableParameters.put(key, new String[] { urlArgs.get(key) });
-                }
-            }
+            Map<String, String[]> modifiableParameters = isGet ? getRequestParameters(content) : null;
 
             filterChain.doFilter(new MessageSignVerifyRequestWrapper(request, modifiableParameters, newBody),
                     responseWrapper);
-            byte[] responseBody = responseWrapper.getContentAsByteArray();
-            Entity entity = messageEncodeDecodeService.byte2Message(responseBody, Result.Entity.class);
+            Entity entity = getResponseEntity(request, responseWrapper);
 
             messageService.createResponse(content, entity.getStatus(), entity.getDescribe(), entity.getPayload());
 
             byte[] newResponseBody = messageEncodeDecodeService.message2Byte(content.getResponseMessage());
 
             responseWrapper.resetBuffer();
+            if (null == responseWrapper.getContentType()) {
+                responseWrapper.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            }
             responseWrapper.getOutputStream().write(newResponseBody);
 
         } catch (Exception ex) {
             var result = ExceptionResultHandler.getResult(ex);
             responseWrapper.resetBuffer();
             responseWrapper.setContentType(MediaType.APPLICATION_JSON_VALUE);
-            responseWrapper.getOutputStream().write(messageEncodeDecodeService.message2Byte(result.getBody()));
+            responseWrapper.getOutputStream().write(encodeResult(result.getBody()));
 
         } finally {
+            request.removeAttribute(CAPTURE_ENTITY);
+            request.removeAttribute(CAPTURED_ENTITY);
             responseWrapper.copyBodyToResponse();
         }
     }
 
+    /**
+     * 请求头中的长度超过限制时直接拒绝，不读取请求体
+     *
+     * @param request 请求
+     */
+    protected void checkContentLength(HttpServletRequest request) {
+        DataSize maxSize = requestBodyProperties.getMaxSize();
+        if (null != maxSize && maxSize.toBytes() >= 0 && request.getContentLengthLong() > maxSize.toBytes()) {
+            throw new RequestBodyTooLargeException(maxSize.toBytes());
+        }
+    }
+
+    /**
+     * GET请求解密后的参数
+     * 默认将请求载荷解码为Map，直接转换为参数数组，不做二次序列化;
+     * 子类若已持有解析后的参数，可覆盖此方法直接返回
+     *
+     * @param content 报文内容
+     * @return 参数
+     */
+    protected Map<String, String[]> getRequestParameters(MessageContent content) {
+        byte[] payload = content.getRequestPayload();
+        if (null == payload || payload.length == 0) {
+            return Collections.emptyMap();
+        }
+        Map<?, ?> args = messageEncodeDecodeService.byte2Message(payload, Map.class);
+        if (null == args || args.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String[]> parameters = new HashMap<>((int) (args.size() / 0.75f) + 1);
+        args.forEach((key, value) -> parameters.put(String.valueOf(key), toParameterValues(value)));
+        return parameters;
+    }
+
+    private static String[] toParameterValues(Object value) {
+        if (null == value) {
+            return new String[]{null};
+        }
+        if (value instanceof Collection<?> collection) {
+            String[] values = new String[collection.size()];
+            int i = 0;
+            for (Object item : collection) {
+                values[i++] = null == item ? null : item.toString();
+            }
+            return values;
+        }
+        return new String[]{value.toString()};
+    }
+
+    /**
+     * 获取控制器返回的响应实体
+     * 优先使用 {@link MessageResultCaptureAdvice} 截获的实体，否则解析已写出的响应体
+     *
+     * @param request         请求
+     * @param responseWrapper 响应
+     * @return 响应实体
+     */
+    protected Entity getResponseEntity(HttpServletRequest request, ContentCachingResponseWrapper responseWrapper) {
+        Object captured = request.getAttribute(CAPTURED_ENTITY);
+        if (captured instanceof Entity entity) {
+            return entity;
+        }
+        byte[] responseBody = responseWrapper.getContentAsByteArray();
+        Entity constant = null == constantResultRegistry ? null : constantResultRegistry.find(responseBody);
+        if (null != constant) {
+            return constant;
+        }
+        return messageEncodeDecodeService.byte2Message(responseBody, Result.Entity.class);
+    }
+
+    /**
+     * 编码异常响应，常量响应直接使用缓存的字节
+     */
+    protected byte[] encodeResult(Entity entity) {
+        byte[] cached = null == constantResultRegistry ? null : constantResultRegistry.message(entity, resultEncoder);
+        return null == cached ? messageEncodeDecodeService.message2Byte(entity) : cached;
+    }
+
     protected abstract MessageService getMessageService(HttpServletRequest request, RequestMessage message);
 
+    /**
+     * 是否为批量请求，默认根据请求头 {@link HttpHeader#MESSAGE_BATCH} 判断
+     *
+     * @param request 请求
+     * @return 是否为批量请求
+     */
+    protected boolean isBatchRequest(HttpServletRequest request) {
+        return "true".equalsIgnoreCase(request.getHeader(HttpHeader.MESSAGE_BATCH));
+    }
+
+    /**
+     * 批量处理
+     * 验签、签名在 {@link #batchExecutor} 中并行执行；请求分发在当前线程依次执行
+     */
+    protected void doFilterBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            MessageBatchRequest batch = messageEncodeDecodeService.byte2Message(readBody(request), MessageBatchRequest.class);
+            List<MessageBatchRequest.Item> items = null == batch || null == batch.getItems() ? Collections.emptyList() : batch.getItems();
+            if (items.size() > maxBatchSize) {
+                throw new IllegalArgumentException("批量请求数量超过限制: " + maxBatchSize);
+            }
+
+            int size = items.size();
+            MessageService[] services = new MessageService[size];
+            String[] paths = new String[size];
+            List<CompletableFuture<MessageContent>> parsed = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                RequestMessage message = items.get(i).getMessage();
+                try {
+                    paths[i] = resolveBatchItemPath(request, items.get(i));
+                    MessageService messageService = resolveMessageService(request, message);
+                    services[i] = messageService;
+                    parsed.add(CompletableFuture.supplyAsync(withLogContext(() -> messageService.parse(message)), getBatchExecutor()));
+                } catch (Exception e) {
+                    parsed.add(CompletableFuture.failedFuture(e));
+                }
+            }
+
+            Object[] results = new Object[size];
+            List<CompletableFuture<Object>> signed = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int index = i;
+                try {
+                    MessageContent content = parsed.get(i).join();
+                    Entity entity = dispatchBatchItem(request, response, paths[i], content);
+                    MessageService messageService = services[i];
+                    signed.add(CompletableFuture.supplyAsync(withLogContext(() -> {
+                        try {
+                            messageService.createResponse(content, entity.getStatus(), entity.getDescribe(), entity.getPayload());
+                            results[index] = content.getResponseMessage();
+                        } catch (Exception e) {
+                            results[index] = ExceptionResultHandler.getResult(e).getBody();
+                        }
+                        return null;
+                    }), getBatchExecutor()));
+                } catch (Exception e) {
+                    Throwable cause = e instanceof CompletionException && null != e.getCause() ? e.getCause() : e;
+                    results[index] = ExceptionResultHandler.getResult(cause).getBody();
+                }
+            }
+            CompletableFuture.allOf(signed.toArray(new CompletableFuture[0])).join();
+
+            byte[] body = messageEncodeDecodeService.message2Byte(new MessageBatchResponse(Arrays.asList(results)));
+            responseWrapper.resetBuffer();
+            responseWrapper.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            responseWrapper.getOutputStream().write(body);
+        } catch (Exception ex) {
+            var result = ExceptionResultHandler.getResult(ex);
+            responseWrapper.resetBuffer();
+            responseWrapper.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            responseWrapper.getOutputStream().write(encodeResult(result.getBody()));
+        } finally {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * 批量请求中单个报文的处理地址
+     * 报文通过INCLUDE方式分发，只映射REQUEST分发的过滤器(认证、限流等)不会执行，
+     * 因此默认只允许本过滤器映射范围内的地址；地址为空时使用批量请求的地址。
+     * 过滤器映射为 /* 时所有地址都在范围内，应覆盖此方法使用白名单；抛出异常时该报文返回错误结果
+     *
+     * @param request 批量请求
+     * @param item    报文
+     * @return 处理地址
+     * @throws IllegalArgumentException 地址不允许
+     */
+    protected String resolveBatchItemPath(HttpServletRequest request, MessageBatchRequest.Item item) {
+        String path = item.getPath();
+        if (null == path || path.isEmpty()) {
+            return request.getServletPath() + Optional.ofNullable(request.getPathInfo()).orElse("");
+        }
+        if (!path.startsWith("/") || path.contains("..") || path.contains("//") || path.contains("\\")
+                || path.indexOf(';') >= 0 || path.indexOf('%') >= 0 || path.indexOf('?') >= 0 || path.indexOf('#') >= 0) {
+            throw new IllegalArgumentException("批量请求地址不合法: " + path);
+        }
+        Collection<String> patterns = getUrlPatterns();
+        for (String pattern : patterns) {
+            if (matchUrlPattern(pattern, path)) {
+                return path;
+            }
+        }
+        throw new IllegalArgumentException("批量请求地址不在过滤器映射范围内: " + path);
+    }
+
+    /**
+     * @return 本过滤器的URL映射，未通过ServletContext注册时为空
+     */
+    protected Collection<String> getUrlPatterns() {
+        FilterConfig config = getFilterConfig();
+        if (null == config) {
+            return Collections.emptyList();
+        }
+        FilterRegistration registration = config.getServletContext().getFilterRegistration(config.getFilterName());
+        if (null == registration || null == registration.getUrlPatternMappings()) {
+            return Collections.emptyList();
+        }
+        return registration.getUrlPatternMappings();
+    }
+
+    private static boolean matchUrlPattern(String pattern, String path) {
+        if ("/*".equals(pattern) || "/".equals(pattern)) {
+            return true;
+        }
+        if (pattern.endsWith("/*")) {
+            String prefix = pattern.substring(0, pattern.length() - 2);
+            return path.equals(prefix) || path.startsWith(prefix + "/");
+        }
+        if (pattern.startsWith("*.")) {
+            return path.endsWith(pattern.substring(1));
+        }
+        return pattern.equals(path);
+    }
+
+    private Entity dispatchBatchItem(HttpServletRequest request, HttpServletResponse response, String path, MessageContent content) throws ServletException, IOException {
+        BatchItemRequestWrapper itemRequest = new BatchItemRequestWrapper(request, content.getRequestPayload());
+        itemRequest.setAttribute(MessageContent.MESSAGE_CONTEXT, content);
+        itemRequest.setAttribute(CAPTURE_ENTITY, Boolean.TRUE);
+
+        ContentCachingResponseWrapper itemResponse = new ContentCachingResponseWrapper(response);
+        request.getRequestDispatcher(path).include(itemRequest, itemResponse);
+        return getResponseEntity(itemRequest, itemResponse);
+    }
+
+    /**
+     * 把提交线程的MDC及 {@link RequestContext} 传递到批量处理线程，执行后恢复原MDC
+     * (线程池已满时任务在提交线程中执行)
+     */
+    private static <T> Supplier<T> withLogContext(Supplier<T> task) {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        RequestContext context = RequestContext.current();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            setContextMap(contextMap);
+            try {
+                if (null == context) {
+                    return task.get();
+                }
+                List<T> result = new ArrayList<>(1);
+                RequestContext.run(context, () -> result.add(task.get()));
+                return result.get(0);
+            } finally {
+                setContextMap(previous);
+            }
+        };
+    }
+
+    private static void setContextMap(Map<String, String> contextMap) {
+        if (null == contextMap) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(contextMap);
+        }
+    }
+
+    public void setBatchExecutor(ExecutorService batchExecutor) {
+        synchronized (this) {
+            if (ownsBatchExecutor && null != this.batchExecutor) {
+                this.batchExecutor.shutdown();
+            }
+            this.batchExecutor = batchExecutor;
+            this.ownsBatchExecutor = false;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (this) {
+            if (ownsBatchExecutor && null != batchExecutor) {
+                batchExecutor.shutdown();
+                batchExecutor = null;
+                ownsBatchExecutor = false;
+            }
+        }
+    }
+
+    public ExecutorService getBatchExecutor() {
+        ExecutorService executor = batchExecutor;
+        if (null == executor) {
+            synchronized (this) {
+                if (null == batchExecutor) {
+                    ownsBatchExecutor = true;
+                    int threads = Runtime.getRuntime().availableProcessors();
+                    AtomicInteger counter = new AtomicInteger();
+                    batchExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(threads * 64),
+                            r -> {
+                                Thread thread = new Thread(r, "message-batch-" + counter.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            },
+                            new ThreadPoolExecutor.CallerRunsPolicy());
+                }
+                executor = batchExecutor;
+            }
+        }
+        return executor;
+    }
+
+    @Autowired(required = false)
+    public void setRequestBodyProperties(RequestBodyProperties requestBodyProperties) {
+        this.requestBodyProperties = requestBodyProperties;
+    }
+
+    @Autowired(required = false)
+    public void setConstantResultRegistry(ConstantResultRegistry constantResultRegistry) {
+        this.constantResultRegistry = constantResultRegistry;
+        if (null != constantResultRegistry) {
+            constantResultRegistry.prepare(resultEncoder);
+        }
+    }
+
+    /**
+     * MessageService 缓存Key，一般为客户端(应用)ID
+     * 默认返回null不缓存，每次请求都调用 {@link #getMessageService(HttpServletRequest, RequestMessage)}；
+     * 缓存提前刷新时在刷新线程中调用 getMessageService，传入的请求为请求行、请求头及参数的快照
+     *
+     * @param request 请求
+     * @param message 请求报文
+     * @return 缓存Key
+     */
+    protected Object getMessageServiceCacheKey(HttpServletRequest request, RequestMessage message) {
+        return null;
+    }
+
+    protected MessageService resolveMessageService(HttpServletRequest request, RequestMessage message) {
+        Object key = null == messageServiceCache ? null : getMessageServiceCacheKey(request, message);
+        if (null == key) {
+            return getMessageService(request, message);
+        }
+        return messageServiceCache.get(key, () -> getMessageService(request, message), () -> {
+            HttpServletRequest snapshot = new DetachedRequest(request);
+            return () -> getMessageService(snapshot, message);
+        });
+    }
+
+    /**
+     * 读取请求体
+     * 已知长度时按长度一次性读取，避免ByteArrayOutputStream扩容及最终拷贝
+     *
+     * @param request 请求
+     * @return 请求体
+     * @throws IOException 读取失败
+     */
+    protected byte[] readBody(HttpServletRequest request) throws IOException {
+        checkContentLength(request);
+        ServletInputStream inputStream = request.getInputStream();
+        int contentLength = request.getContentLength();
+        if (contentLength < 0) {
+            // 报文需要整体解码，不写入临时文件
+            return SpooledRequestBody.readInMemory(inputStream, -1, requestBodyProperties, bufferPool);
+        }
+        byte[] body = new byte[contentLength];
+        int n = inputStream.readNBytes(body, 0, contentLength);
+        if (n < contentLength) {
+            throw new EOFException("请求体长度不足: " + n + "/" + contentLength);
+        }
+        return body;
+    }
+
     public static class MessageSignVerifyRequestWrapper extends HttpServletRequestWrapper {
 
-        private final ByteArrayInputStream inputStream;
+        private final byte[] body;
         private final Map<String, String[]> modifiableParameters;
         private Map<String, String[]> allParameters = null;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
 
         /**
          * Constructs a request object wrapping the given request.
+         * 请求体直接引用body，不做拷贝
          *
          * @param request The request to wrap
          * @throws IllegalArgumentException if the request is null
@@ -114,33 +551,42 @@ public abstract class AbstractMessageSignVerifyFilter extends OncePerRequestFilt
         public MessageSignVerifyRequestWrapper(HttpServletRequest request, Map<String, String[]> modifiableParameters,
                 byte[] body) {
             super(request);
-            this.modifiableParameters = Optional.ofNullable(modifiableParameters).orElse(new HashMap<>());
-            this.inputStream = new ByteArrayInputStream(body);
+            this.modifiableParameters = null == modifiableParameters ? Collections.emptyMap() : modifiableParameters;
+            this.body = null == body ? new byte[0] : body;
         }
 
         @Override
         public ServletInputStream getInputStream() throws IOException {
+            if (null != reader) {
+                throw new IllegalStateException("getReader() has already been called for this request");
+            }
+            if (null == inputStream) {
+                inputStream = new ByteArrayServletInputStream(body);
+            }
+            return inputStream;
+        }
 
-            return new ServletInputStream() {
-                @Override
-                public boolean isFinished() {
-                    return false;
-                }
-
-                @Override
-                public boolean isReady() {
-                    return true;
-                }
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (null != inputStream) {
+                throw new IllegalStateException("getInputStream() has already been called for this request");
+            }
+            if (null == reader) {
+                String encoding = getCharacterEncoding();
+                Charset charset = null == encoding ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+                reader = new BufferedReader(new InputStreamReader(new ByteArrayServletInputStream(body), charset));
+            }
+            return reader;
+        }
 
-                @Override
-                public void setReadListener(ReadListener listener) {
-                }
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
 
-                @Override
-                public int read() throws IOException {
-                    return inputStream.read();
-                }
-            };
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
         }
 
         @Override
@@ -154,12 +600,15 @@ public abstract class AbstractMessageSignVerifyFilter extends OncePerRequestFilt
 
         @Override
         public Map<String, String[]> getParameterMap() {
+            if (modifiableParameters.isEmpty()) {
+                return super.getParameterMap();
+            }
             if (allParameters == null) {
-                allParameters = new HashMap<>();
-                allParameters.putAll(super.getParameterMap());
-                allParameters.putAll(modifiableParameters);
+                Map<String, String[]> parameters = new HashMap<>(super.getParameterMap());
+                parameters.putAll(modifiableParameters);
+                allParameters = Collections.unmodifiableMap(parameters);
             }
-            return Collections.unmodifiableMap(allParameters);
+            return allParameters;
         }
 
         @Override
@@ -169,11 +618,212 @@ public abstract class AbstractMessageSignVerifyFilter extends OncePerRequestFilt
 
         @Override
         public String[] getParameterValues(String name) {
-            if (modifiableParameters.containsKey(name)) {
-                return modifiableParameters.get(name);
+            String[] values = modifiableParameters.get(name);
+            if (null != values) {
+                return values;
             }
             return super.getParameterValues(name);
         }
     }
 
+    /**
+     * 异步刷新 MessageService 时使用的请求快照
+     * 刷新在请求结束后执行，原请求可能已被容器回收；快照保存请求行、请求头、参数及客户端地址，
+     * 请求属性不可用，其余方法不应在刷新时调用
+     */
+    private static class DetachedRequest extends HttpServletRequestWrapper {
+
+        private final String method;
+        private final String requestURI;
+        private final String servletPath;
+        private final String pathInfo;
+        private final String queryString;
+        private final String remoteAddr;
+        private final String contentType;
+        private final Map<String, List<String>> headers;
+        private final Map<String, String[]> parameters;
+
+        private DetachedRequest(HttpServletRequest request) {
+            super(request);
+            this.method = request.getMethod();
+            this.requestURI = request.getRequestURI();
+            this.servletPath = request.getServletPath();
+            this.pathInfo = request.getPathInfo();
+            this.queryString = request.getQueryString();
+            this.remoteAddr = request.getRemoteAddr();
+            this.contentType = request.getContentType();
+            Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (String name : Collections.list(request.getHeaderNames())) {
+                headers.put(name, Collections.list(request.getHeaders(name)));
+            }
+            this.headers = headers;
+            this.parameters = Map.copyOf(request.getParameterMap());
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return requestURI;
+        }
+
+        @Override
+        public String getServletPath() {
+            return servletPath;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return pathInfo;
+        }
+
+        @Override
+        public String getQueryString() {
+            return queryString;
+        }
+
+        @Override
+        public String getRemoteAddr() {
+            return remoteAddr;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            List<String> values = headers.get(name);
+            return null == values || values.isEmpty() ? null : values.get(0);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return Collections.enumeration(headers.getOrDefault(name, Collections.emptyList()));
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(headers.keySet());
+        }
+
+        @Override
+        public String getParameter(String name) {
+            String[] values = parameters.get(name);
+            return null == values || values.length == 0 ? null : values[0];
+        }
+
+        @Override
+        public Map<String, String[]> getParameterMap() {
+            return parameters;
+        }
+
+        @Override
+        public Enumeration<String> getParameterNames() {
+            return Collections.enumeration(parameters.keySet());
+        }
+
+        @Override
+        public String[] getParameterValues(String name) {
+            return parameters.get(name);
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return null;
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            return Collections.emptyEnumeration();
+        }
+    }
+
+    /**
+     * 批量请求中的单个请求，属性互相隔离
+     * 批量请求头及签名只对整个批量报文有效，不传递给单个请求
+     */
+    private static class BatchItemRequestWrapper extends MessageSignVerifyRequestWrapper {
+
+        private static final Set<String> HIDDEN_HEADERS = Set.of(
+                HttpHeader.MESSAGE_BATCH.toLowerCase(Locale.ROOT),
+                HttpHeader.SIGNATURE.toLowerCase(Locale.ROOT)
+        );
+
+        private static final Object REMOVED = new Object();
+
+        private final Map<String, Object> attributes = new HashMap<>();
+
+        private BatchItemRequestWrapper(HttpServletRequest request, byte[] body) {
+            super(request, null, body);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isHidden(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(BatchItemRequestWrapper::isHidden);
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public long getDateHeader(String name) {
+            return isHidden(name) ? -1 : super.getDateHeader(name);
+        }
+
+        @Override
+        public int getIntHeader(String name) {
+            return isHidden(name) ? -1 : super.getIntHeader(name);
+        }
+
+        private static boolean isHidden(String name) {
+            return null != name && HIDDEN_HEADERS.contains(name.toLowerCase(Locale.ROOT));
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            Object value = attributes.get(name);
+            if (null == value) {
+                return super.getAttribute(name);
+            }
+            return value == REMOVED ? null : value;
+        }
+
+        @Override
+        public Enumeration<String> getAttributeNames() {
+            Set<String> names = new LinkedHashSet<>(Collections.list(super.getAttributeNames()));
+            attributes.forEach((name, value) -> {
+                if (value == REMOVED) {
+                    names.remove(name);
+                } else {
+                    names.add(name);
+                }
+            });
+            return Collections.enumeration(names);
+        }
+
+        @Override
+        public void setAttribute(String name, Object o) {
+            attributes.put(name, null == o ? REMOVED : o);
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            attributes.put(name, REMOVED);
+        }
+    }
+
 }
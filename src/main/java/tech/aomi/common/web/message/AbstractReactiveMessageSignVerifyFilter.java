@@ -0,0 +1,245 @@
+package tech.aomi.common.web.message;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tech.aomi.common.message.MessageEncodeDecodeService;
+import tech.aomi.common.message.MessageService;
+import tech.aomi.common.message.entity.MessageContent;
+import tech.aomi.common.message.entity.RequestMessage;
+import tech.aomi.common.web.RequestBodyProperties;
+import tech.aomi.common.web.controller.ExceptionResultHandler;
+import tech.aomi.common.web.controller.RequestBodyTooLargeException;
+import tech.aomi.common.web.controller.Result;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 报文签名、验签过滤器(WebFlux)
+ * 与 {@link AbstractMessageSignVerifyFilter} 流程一致: 从 {@link DataBuffer} 解码并验签 {@link RequestMessage}，
+ * 装饰响应，对控制器返回的 {@link Result.Entity} 签名
+ *
+ * @author Sean
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public abstract class AbstractReactiveMessageSignVerifyFilter implements WebFilter {
+
+    protected final MessageEncodeDecodeService messageEncodeDecodeService;
+
+    /**
+     * 请求体大小限制
+     */
+    private RequestBodyProperties requestBodyProperties = new RequestBodyProperties();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        boolean isGet = HttpMethod.GET.equals(request.getMethod());
+
+        Mono<RequestMessage> messageMono = isGet
+                ? Mono.fromCallable(() -> new RequestMessage(request.getQueryParams().toSingleValueMap()))
+                : readBody(request)
+                .map(body -> messageEncodeDecodeService.byte2Message(body, RequestMessage.class));
+
+        return messageMono
+                .flatMap(message -> getMessageService(exchange, message)
+                        .switchIfEmpty(Mono.error(() -> new IllegalStateException("未找到报文服务")))
+                        .flatMap(messageService -> {
+                            MessageContent content = messageService.parse(message);
+                            exchange.getAttributes().put(MessageContent.MESSAGE_CONTEXT, content);
+
+                            ServerWebExchange newExchange = exchange.mutate()
+                                    .request(new MessageSignVerifyRequestDecorator(request, content, isGet))
+                                    .response(new MessageSignResponseDecorator(exchange.getResponse(), messageService, content))
+                                    .build();
+                            return chain.filter(newExchange);
+                        }))
+                .onErrorResume(ex -> writeError(exchange.getResponse(), ex));
+    }
+
+    /**
+     * 获取报文服务，查询配置、加载密钥等阻塞操作应在此方法中切换线程
+     *
+     * @param exchange 请求
+     * @param message  请求报文
+     * @return 报文服务
+     */
+    protected abstract Mono<MessageService> getMessageService(ServerWebExchange exchange, RequestMessage message);
+
+    /**
+     * 读取请求体，超过 {@link RequestBodyProperties#getMaxSize()} 时返回 {@link RequestBodyTooLargeException}
+     *
+     * @param request 请求
+     * @return 请求体
+     */
+    protected Mono<byte[]> readBody(ServerHttpRequest request) {
+        DataSize max = requestBodyProperties.getMaxSize();
+        long maxSize = null == max ? -1 : max.toBytes();
+        if (maxSize >= 0 && request.getHeaders().getContentLength() > maxSize) {
+            return Mono.error(new RequestBodyTooLargeException(maxSize));
+        }
+        int limit = maxSize < 0 ? -1 : (int) Math.min(maxSize, Integer.MAX_VALUE - 8);
+        return DataBufferUtils.join(request.getBody(), limit)
+                .onErrorMap(DataBufferLimitException.class, e -> new RequestBodyTooLargeException(maxSize))
+                .map(AbstractReactiveMessageSignVerifyFilter::toBytes)
+                .defaultIfEmpty(new byte[0]);
+    }
+
+    @Autowired(required = false)
+    public void setRequestBodyProperties(RequestBodyProperties requestBodyProperties) {
+        this.requestBodyProperties = requestBodyProperties;
+    }
+
+    /**
+     * GET请求解密后的参数
+     *
+     * @param content 报文内容
+     * @return 参数
+     */
+    protected MultiValueMap<String, String> getRequestParameters(MessageContent content) {
+        MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
+        byte[] payload = content.getRequestPayload();
+        if (null == payload || payload.length == 0) {
+            return parameters;
+        }
+        Map<?, ?> args = messageEncodeDecodeService.byte2Message(payload, Map.class);
+        if (null == args) {
+            return parameters;
+        }
+        args.forEach((key, value) -> {
+            String name = String.valueOf(key);
+            if (value instanceof Collection<?> collection) {
+                collection.forEach(item -> parameters.add(name, null == item ? null : item.toString()));
+            } else {
+                parameters.add(name, null == value ? null : value.toString());
+            }
+        });
+        return parameters;
+    }
+
+    private Mono<Void> writeError(ServerHttpResponse response, Throwable ex) {
+        if (response.isCommitted()) {
+            return Mono.error(ex);
+        }
+        var result = ExceptionResultHandler.getResult(ex);
+        byte[] body = messageEncodeDecodeService.message2Byte(result.getBody());
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private static byte[] toBytes(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private class MessageSignVerifyRequestDecorator extends ServerHttpRequestDecorator {
+
+        private final byte[] body;
+
+        private final HttpHeaders headers;
+
+        private final MultiValueMap<String, String> queryParams;
+
+        private MessageSignVerifyRequestDecorator(ServerHttpRequest delegate, MessageContent content, boolean isGet) {
+            super(delegate);
+            this.body = null == content.getRequestPayload() ? new byte[0] : content.getRequestPayload();
+
+            HttpHeaders httpHeaders = new HttpHeaders();
+            httpHeaders.putAll(delegate.getHeaders());
+            httpHeaders.remove(HttpHeaders.TRANSFER_ENCODING);
+            httpHeaders.setContentLength(body.length);
+            this.headers = HttpHeaders.readOnlyHttpHeaders(httpHeaders);
+
+            if (isGet) {
+                MultiValueMap<String, String> params = new LinkedMultiValueMap<>(delegate.getQueryParams());
+                params.putAll(getRequestParameters(content));
+                this.queryParams = CollectionUtils.unmodifiableMultiValueMap(params);
+            } else {
+                this.queryParams = delegate.getQueryParams();
+            }
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public MultiValueMap<String, String> getQueryParams() {
+            return queryParams;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            return Flux.defer(() -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+        }
+    }
+
+    private class MessageSignResponseDecorator extends ServerHttpResponseDecorator {
+
+        private final MessageService messageService;
+
+        private final MessageContent content;
+
+        private MessageSignResponseDecorator(ServerHttpResponse delegate, MessageService messageService, MessageContent content) {
+            super(delegate);
+            this.messageService = messageService;
+            this.content = content;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(Flux.from(body))
+                    .map(AbstractReactiveMessageSignVerifyFilter::toBytes)
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        Result.Entity entity = messageEncodeDecodeService.byte2Message(bytes, Result.Entity.class);
+                        messageService.createResponse(content, entity.getStatus(), entity.getDescribe(), entity.getPayload());
+                        byte[] newBody = messageEncodeDecodeService.message2Byte(content.getResponseMessage());
+
+                        HttpHeaders headers = getDelegate().getHeaders();
+                        if (null == headers.getContentType()) {
+                            headers.setContentType(MediaType.APPLICATION_JSON);
+                        }
+                        headers.setContentLength(newBody.length);
+                        return super.writeWith(Mono.just(bufferFactory().wrap(newBody)));
+                    });
+        }
+
+        @Override
+        public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWith(Flux.from(body).flatMapSequential(p -> p));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package tech.aomi.common.web.message;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 基于字节数组的ServletInputStream
+ * 直接读取给定数组的视图，不做额外拷贝，支持批量读取
+ *
+ * @author Sean
+ */
+public class ByteArrayServletInputStream extends ServletInputStream {
+
+    private final byte[] buf;
+
+    private final int count;
+
+    private int pos;
+
+    private int mark;
+
+    public ByteArrayServletInputStream(byte[] buf) {
+        this(buf, 0, null == buf ? 0 : buf.length);
+    }
+
+    public ByteArrayServletInputStream(byte[] buf, int offset, int length) {
+        this.buf = null == buf ? new byte[0] : buf;
+        Objects.checkFromIndexSize(offset, length, this.buf.length);
+        this.pos = offset;
+        this.mark = offset;
+        this.count = offset + length;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return pos >= count;
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void setReadListener(ReadListener listener) {
+        Objects.requireNonNull(listener, "listener");
+        try {
+            if (isFinished()) {
+                listener.onAllDataRead();
+            } else {
+                listener.onDataAvailable();
+                if (isFinished()) {
+                    listener.onAllDataRead();
+                }
+            }
+        } catch (Throwable t) {
+            listener.onError(t);
+        }
+    }
+
+    @Override
+    public int read() {
+        return pos < count ? (buf[pos++] & 0xff) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (pos >= count) {
+            return -1;
+        }
+        int avail = count - pos;
+        if (len > avail) {
+            len = avail;
+        }
+        if (len <= 0) {
+            return 0;
+        }
+        System.arraycopy(buf, pos, b, off, len);
+        pos += len;
+        return len;
+    }
+
+    @Override
+    public byte[] readAllBytes() {
+        byte[] result = Arrays.copyOfRange(buf, pos, count);
+        pos = count;
+        return result;
+    }
+
+    @Override
+    public int readNBytes(byte[] b, int off, int len) {
+        int n = read(b, off, len);
+        return n == -1 ? 0 : n;
+    }
+
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        int len = count - pos;
+        out.write(buf, pos, len);
+        pos = count;
+        return len;
+    }
+
+    @Override
+    public long skip(long n) {
+        long k = count - pos;
+        if (n < k) {
+            k = n < 0 ? 0 : n;
+        }
+        pos += (int) k;
+        return k;
+    }
+
+    @Override
+    public int available() {
+        return count - pos;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readAheadLimit) {
+        mark = pos;
+    }
+
+    @Override
+    public synchronized void reset() {
+        pos = mark;
+    }
+
+    @Override
+    public void close() {
+    }
+}
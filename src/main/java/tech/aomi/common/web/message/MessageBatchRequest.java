@@ -0,0 +1,38 @@
+package tech.aomi.common.web.message;
+
+import lombok.Getter;
+import lombok.Setter;
+import tech.aomi.common.message.entity.RequestMessage;
+
+import java.util.List;
+
+/**
+ * 批量请求报文
+ *
+ * @author Sean
+ */
+@Getter
+@Setter
+public class MessageBatchRequest implements java.io.Serializable {
+
+    private static final long serialVersionUID = -2318790142466120734L;
+
+    private List<Item> items;
+
+    @Getter
+    @Setter
+    public static class Item implements java.io.Serializable {
+
+        private static final long serialVersionUID = 2604512986413537181L;
+
+        /**
+         * 处理请求的地址，为空时使用批量请求的地址
+         */
+        private String path;
+
+        /**
+         * 请求报文
+         */
+        private RequestMessage message;
+    }
+}
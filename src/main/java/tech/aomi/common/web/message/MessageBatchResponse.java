@@ -0,0 +1,25 @@
+package tech.aomi.common.web.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 批量响应报文
+ * items 与请求中的 items 一一对应，每一项为已签名的响应报文，处理失败时为错误结果
+ *
+ * @author Sean
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageBatchResponse implements java.io.Serializable {
+
+    private static final long serialVersionUID = 7441585036281725893L;
+
+    private List<Object> items;
+}
@@ -0,0 +1,51 @@
+package tech.aomi.common.web.message;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import tech.aomi.common.web.controller.Result;
+
+/**
+ * 报文过滤器响应截获
+ * 请求经过 {@link AbstractMessageSignVerifyFilter} 时，直接把 {@link Result.Entity} 交给过滤器，
+ * 不再由消息转换器序列化，过滤器只需对响应报文编码一次
+ *
+ * @author Sean
+ */
+@Configuration
+@ControllerAdvice
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnClass(HttpServletRequest.class)
+@ConditionalOnProperty(prefix = "aomi-tech.autoconfigure.web.message", name = "capture-entity", havingValue = "true", matchIfMissing = true)
+public class MessageResultCaptureAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return Result.class.isAssignableFrom(returnType.getParameterType());
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType, Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(body instanceof Result.Entity) || !(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        HttpServletRequest httpServletRequest = servletRequest.getServletRequest();
+        if (null == httpServletRequest.getAttribute(AbstractMessageSignVerifyFilter.CAPTURE_ENTITY)) {
+            return body;
+        }
+        httpServletRequest.setAttribute(AbstractMessageSignVerifyFilter.CAPTURED_ENTITY, body);
+        // 返回null, 消息转换器不再写出响应体
+        return null;
+    }
+}
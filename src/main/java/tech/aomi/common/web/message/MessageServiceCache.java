@@ -0,0 +1,322 @@
+package tech.aomi.common.web.message;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import tech.aomi.common.message.MessageService;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * MessageService 缓存
+ * 按客户端(应用)ID缓存已解析密钥的 MessageService，容量有上限并按时间过期。
+ * 超过刷新时间后，由第一个访问的请求在刷新线程池中异步重新加载，所有请求继续使用旧值(提前刷新)；
+ * 未命中时同一个Key只加载一次，并发请求等待同一个加载结果。
+ * 密钥轮换时调用 {@link #invalidate(Object)} 使该Key的缓存失效，失效前该Key已开始的加载、刷新结果不会再写入缓存，
+ * 其他Key不受影响
+ *
+ * @author Sean
+ */
+@Slf4j
+public class MessageServiceCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    public static final Duration DEFAULT_EXPIRE_AFTER = Duration.ofMinutes(30);
+
+    public static final Duration DEFAULT_REFRESH_AFTER = Duration.ofMinutes(10);
+
+    /**
+     * 最大缓存数量
+     */
+    @Getter
+    private final int maximumSize;
+
+    /**
+     * 加载后过期时间
+     */
+    @Getter
+    private final Duration expireAfter;
+
+    /**
+     * 加载后提前刷新时间，应小于过期时间
+     */
+    @Getter
+    private final Duration refreshAfter;
+
+    private final long expireAfterNanos;
+
+    private final long refreshAfterNanos;
+
+    /**
+     * 刷新线程池
+     */
+    private final Executor refreshExecutor;
+
+    private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 正在加载的Key，失效时移除；加载完成时不再是该Key当前加载的结果丢弃
+     */
+    private final Map<Object, CompletableFuture<MessageService>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder refreshCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    public MessageServiceCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_EXPIRE_AFTER, DEFAULT_REFRESH_AFTER);
+    }
+
+    public MessageServiceCache(int maximumSize, Duration expireAfter, Duration refreshAfter) {
+        this(maximumSize, expireAfter, refreshAfter, RefreshExecutorHolder.EXECUTOR);
+    }
+
+    public MessageServiceCache(int maximumSize, Duration expireAfter, Duration refreshAfter, Executor refreshExecutor) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be greater than 0");
+        }
+        this.maximumSize = maximumSize;
+        this.expireAfter = expireAfter;
+        this.refreshAfter = refreshAfter;
+        this.expireAfterNanos = expireAfter.toNanos();
+        this.refreshAfterNanos = Math.min(refreshAfter.toNanos(), expireAfterNanos);
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * 获取缓存的 MessageService，不存在或已过期时通过loader加载
+     * loader 同时用于异步刷新，需要能在其他线程中执行
+     *
+     * @param key    客户端(应用)ID
+     * @param loader 加载器
+     * @return MessageService
+     */
+    public MessageService get(Object key, Supplier<MessageService> loader) {
+        return get(key, loader, () -> loader);
+    }
+
+    /**
+     * 获取缓存的 MessageService，不存在或已过期时在当前线程通过loader加载
+     *
+     * @param key           客户端(应用)ID
+     * @param loader        加载器
+     * @param refreshLoader 需要刷新时在当前线程调用，返回的加载器在刷新线程中执行
+     * @return MessageService
+     */
+    public MessageService get(Object key, Supplier<MessageService> loader, Supplier<Supplier<MessageService>> refreshLoader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (null != entry) {
+            long age = now - entry.loadedAt;
+            if (age < refreshAfterNanos) {
+                hitCount.increment();
+                return entry.value;
+            }
+            if (age < expireAfterNanos) {
+                hitCount.increment();
+                if (entry.refreshing.compareAndSet(false, true)) {
+                    scheduleRefresh(key, entry, refreshLoader);
+                }
+                return entry.value;
+            }
+        }
+
+        missCount.increment();
+        CompletableFuture<MessageService> future = new CompletableFuture<>();
+        CompletableFuture<MessageService> pending = loading.putIfAbsent(key, future);
+        if (null != pending) {
+            return await(pending);
+        }
+        try {
+            MessageService value = loader.get();
+            if (null != value) {
+                if (null == entry && entries.size() >= maximumSize) {
+                    evict(now);
+                }
+                store(key, null, future, new Entry(value, System.nanoTime()));
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 使指定客户端的缓存失效，如密钥轮换后
+     *
+     * @param key 客户端(应用)ID
+     */
+    public void invalidate(Object key) {
+        loading.remove(key);
+        entries.remove(key);
+    }
+
+    /**
+     * 清空所有缓存
+     */
+    public void invalidateAll() {
+        loading.clear();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public long refreshCount() {
+        return refreshCount.sum();
+    }
+
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * @return 命中率，无访问时为 1.0
+     */
+    public double hitRate() {
+        long hit = hitCount.sum();
+        long total = hit + missCount.sum();
+        return total == 0 ? 1.0 : (double) hit / total;
+    }
+
+    private void scheduleRefresh(Object key, Entry entry, Supplier<Supplier<MessageService>> refreshLoader) {
+        try {
+            Supplier<MessageService> loader = refreshLoader.get();
+            refreshExecutor.execute(() -> refresh(key, entry, loader));
+        } catch (RuntimeException e) {
+            // 线程池已满等情况下放弃本次刷新，由后续请求重试
+            LOGGER.warn("提交MessageService刷新失败: {}, {}", key, e.getMessage());
+            entry.refreshing.set(false);
+        }
+    }
+
+    private void refresh(Object key, Entry entry, Supplier<MessageService> loader) {
+        try {
+            MessageService value = loader.get();
+            if (null != value && store(key, entry, null, new Entry(value, System.nanoTime()))) {
+                refreshCount.increment();
+            }
+        } catch (Exception e) {
+            // 刷新失败继续使用旧值，直到过期
+            LOGGER.warn("刷新MessageService失败: {}, {}", key, e.getMessage());
+        } finally {
+            entry.refreshing.set(false);
+        }
+    }
+
+    /**
+     * 写入缓存，加载期间该Key已失效时丢弃
+     * 失效时先移除加载中的记录再移除缓存，写入时在同一个Key的锁内检查，两者不会交错
+     *
+     * @param expected 刷新时为旧值，仅在当前值仍为旧值时替换(失效后旧值已移除)
+     * @param owner    未命中加载时为本次加载，仅在仍为该Key当前的加载时写入
+     * @return 是否写入
+     */
+    private boolean store(Object key, Entry expected, CompletableFuture<MessageService> owner, Entry value) {
+        boolean[] stored = {false};
+        entries.compute(key, (k, current) -> {
+            if ((null != expected && current != expected) || (null != owner && loading.get(key) != owner)) {
+                return current;
+            }
+            stored[0] = true;
+            return value;
+        });
+        return stored[0];
+    }
+
+    private static MessageService await(CompletableFuture<MessageService> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 移除已过期的缓存，没有过期的则移除最早加载的一个
+     */
+    private void evict(long now) {
+        Object eldestKey = null;
+        long eldestLoadedAt = Long.MAX_VALUE;
+        int removed = 0;
+        for (Map.Entry<Object, Entry> item : entries.entrySet()) {
+            long loadedAt = item.getValue().loadedAt;
+            if (now - loadedAt >= expireAfterNanos) {
+                if (entries.remove(item.getKey(), item.getValue())) {
+                    removed++;
+                }
+            } else if (loadedAt < eldestLoadedAt) {
+                eldestLoadedAt = loadedAt;
+                eldestKey = item.getKey();
+            }
+        }
+        if (removed == 0 && null != eldestKey && null != entries.remove(eldestKey)) {
+            removed = 1;
+        }
+        evictionCount.add(removed);
+    }
+
+    private static final class Entry {
+
+        private final MessageService value;
+
+        private final long loadedAt;
+
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        private Entry(MessageService value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * 默认刷新线程池，守护线程，空闲时回收
+     */
+    private static final class RefreshExecutorHolder {
+
+        private static final Executor EXECUTOR = create();
+
+        private static Executor create() {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(1024),
+                    r -> {
+                        Thread thread = new Thread(r, "message-service-refresh-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
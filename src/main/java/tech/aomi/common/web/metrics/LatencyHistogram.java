@@ -0,0 +1,215 @@
+package tech.aomi.common.web.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滚动时间窗口的耗时直方图
+ * 按HDR方式分桶: 每个2的幂区间分为16个子桶，相对误差不超过1/16，记录范围1微秒到约71分钟，固定464个桶。
+ * 时间窗口分为若干分片轮转使用，每个分片按线程分段计数；记录只有原子加和分片轮转时的一次CAS，不加锁。
+ * <p>
+ * 分片轮转清零时并发写入的少量数据可能丢失，统计结果为近似值
+ *
+ * @author Sean
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final long MAX_VALUE = (1L << 32) - 1;
+
+    static final int BUCKET_COUNT = (32 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+
+    /**
+     * 每个分段数组在桶之后保存: 总次数、耗时总和、错误次数
+     */
+    private static final int TOTAL = BUCKET_COUNT;
+
+    private static final int SUM = BUCKET_COUNT + 1;
+
+    private static final int ERRORS = BUCKET_COUNT + 2;
+
+    private static final int LENGTH = BUCKET_COUNT + 3;
+
+    private static final long UNUSED = Long.MIN_VALUE;
+
+    private final Slot[] slots;
+
+    private final long slotNanos;
+
+    private final int stripeMask;
+
+    /**
+     * @param windowNanos 时间窗口
+     * @param slotCount   窗口分片数
+     * @param stripes     分段数，必须为2的幂
+     */
+    public LatencyHistogram(long windowNanos, int slotCount, int stripes) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two");
+        }
+        this.slots = new Slot[Math.max(1, slotCount)];
+        this.slotNanos = Math.max(1, windowNanos / slots.length);
+        this.stripeMask = stripes - 1;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot(stripes);
+        }
+    }
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos 耗时(纳秒)
+     * @param error 是否出错
+     */
+    public void record(long nanos, boolean error) {
+        long epoch = System.nanoTime() / slotNanos;
+        Slot slot = slots[(int) Math.floorMod(epoch, (long) slots.length)];
+        slot.rotate(epoch);
+        long micros = Math.min(Math.max(0, nanos / 1000), MAX_VALUE);
+        AtomicLongArray counts = slot.stripes[stripe()];
+        counts.incrementAndGet(bucket(micros));
+        counts.incrementAndGet(TOTAL);
+        counts.addAndGet(SUM, micros);
+        if (error) {
+            counts.incrementAndGet(ERRORS);
+        }
+    }
+
+    /**
+     * 合并时间窗口内的所有分片
+     *
+     * @return 窗口内的统计
+     */
+    public Snapshot snapshot() {
+        long current = System.nanoTime() / slotNanos;
+        long[] merged = new long[LENGTH];
+        for (Slot slot : slots) {
+            long epoch = slot.epoch.get();
+            if (epoch == UNUSED || epoch > current || current - epoch >= slots.length) {
+                continue;
+            }
+            for (AtomicLongArray counts : slot.stripes) {
+                for (int i = 0; i < LENGTH; i++) {
+                    merged[i] += counts.get(i);
+                }
+            }
+        }
+        return new Snapshot(merged);
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exp - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKET_COUNT + (int) ((micros >>> shift) - SUB_BUCKET_COUNT);
+    }
+
+    /**
+     * @return 桶的上限(微秒)
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKET_COUNT - 1;
+        long lower = (long) (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ (id >>> 16)) & stripeMask;
+    }
+
+    private static final class Slot {
+
+        private final AtomicLongArray[] stripes;
+
+        private final AtomicLong epoch = new AtomicLong(UNUSED);
+
+        private Slot(int stripeCount) {
+            this.stripes = new AtomicLongArray[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new AtomicLongArray(LENGTH);
+            }
+        }
+
+        /**
+         * 分片被新的时间段复用时清零，CAS成功的线程执行清零
+         */
+        private void rotate(long current) {
+            long e = epoch.get();
+            if ((e == UNUSED || e < current) && epoch.compareAndSet(e, current)) {
+                for (AtomicLongArray counts : stripes) {
+                    for (int i = 0; i < LENGTH; i++) {
+                        counts.set(i, 0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 时间窗口内的统计结果
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        private Snapshot(long[] counts) {
+            this.counts = counts;
+        }
+
+        public long getCount() {
+            return counts[TOTAL];
+        }
+
+        public long getErrors() {
+            return counts[ERRORS];
+        }
+
+        /**
+         * @return 平均耗时(微秒)
+         */
+        public double getMean() {
+            return counts[TOTAL] == 0 ? 0 : (double) counts[SUM] / counts[TOTAL];
+        }
+
+        /**
+         * @param percentile 百分位，0-100
+         * @return 耗时(微秒)，为所在桶的上限
+         */
+        public long getValueAtPercentile(double percentile) {
+            long total = counts[TOTAL];
+            if (total == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return upperBound(i);
+                }
+            }
+            return getMax();
+        }
+
+        /**
+         * @return 最大耗时(微秒)，为所在桶的上限
+         */
+        public long getMax() {
+            for (int i = BUCKET_COUNT - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return upperBound(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package tech.aomi.common.web.metrics;
+
+/**
+ * 单个接口在时间窗口内的耗时统计，耗时单位为毫秒
+ *
+ * @param method    请求方法
+ * @param route     匹配的接口路径，如 /users/{id}
+ * @param count     请求次数
+ * @param errors    错误次数: 响应状态码为5xx，请求属性中有 DispatcherServlet.EXCEPTION_ATTRIBUTE 或
+ *                  ErrorResponseFilter.EXCEPTION_ATTRIBUTE(已处理并返回错误响应的异常)，或过滤器链抛出异常
+ * @param errorRate 错误率
+ * @param mean      平均耗时
+ * @param p50       50%耗时
+ * @param p90       90%耗时
+ * @param p99       99%耗时
+ * @param p999      99.9%耗时
+ * @param max       最大耗时
+ * @author Sean
+ */
+public record RouteLatency(String method, String route, long count, long errors, double errorRate,
+                           double mean, double p50, double p90, double p99, double p999, double max) {
+
+    static RouteLatency of(String method, String route, LatencyHistogram.Snapshot snapshot) {
+        long count = snapshot.getCount();
+        return new RouteLatency(method, route, count, snapshot.getErrors(),
+                count == 0 ? 0 : (double) snapshot.getErrors() / count,
+                snapshot.getMean() / 1000,
+                snapshot.getValueAtPercentile(50) / 1000.0,
+                snapshot.getValueAtPercentile(90) / 1000.0,
+                snapshot.getValueAtPercentile(99) / 1000.0,
+                snapshot.getValueAtPercentile(99.9) / 1000.0,
+                snapshot.getMax() / 1000.0);
+    }
+}
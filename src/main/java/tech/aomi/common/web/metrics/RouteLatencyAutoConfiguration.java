@@ -0,0 +1,45 @@
+package tech.aomi.common.web.metrics;
+
+import jakarta.servlet.Filter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import tech.aomi.common.web.RouteLatencyProperties;
+
+/**
+ * 接口耗时统计自动配置
+ *
+ * @author Sean
+ */
+@Configuration
+@ConditionalOnClass(Filter.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "aomi-tech.autoconfigure.web.latency", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RouteLatencyProperties.class)
+public class RouteLatencyAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(RouteLatencyRegistry.class)
+    public RouteLatencyRegistry routeLatencyRegistry(RouteLatencyProperties properties) {
+        return new RouteLatencyRegistry(properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RouteLatencyFilter> routeLatencyFilter(RouteLatencyRegistry registry) {
+        FilterRegistrationBean<RouteLatencyFilter> registration = new FilterRegistrationBean<>(new RouteLatencyFilter(registry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "aomi-tech.autoconfigure.web.latency", name = "endpoint-enabled", havingValue = "true")
+    public RouteLatencyController routeLatencyController(RouteLatencyRegistry registry) {
+        return new RouteLatencyController(registry);
+    }
+}
@@ -0,0 +1,25 @@
+package tech.aomi.common.web.metrics;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import tech.aomi.common.web.controller.Result;
+
+/**
+ * 接口耗时统计查询接口
+ *
+ * @author Sean
+ */
+@RestController
+public class RouteLatencyController {
+
+    private final RouteLatencyRegistry registry;
+
+    public RouteLatencyController(RouteLatencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @GetMapping("${aomi-tech.autoconfigure.web.latency.endpoint-path:/_latency}")
+    public Result latency() {
+        return Result.success(registry.snapshot());
+    }
+}
@@ -0,0 +1,65 @@
+package tech.aomi.common.web.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerMapping;
+import tech.aomi.common.web.controller.ErrorResponseFilter;
+
+import java.io.IOException;
+
+/**
+ * 记录每个接口的处理耗时，异步请求在最后一次分发结束时记录
+ * 处理异常的响应一般仍为HTTP 200的 {@link tech.aomi.common.web.controller.Result}，
+ * 因此除5xx外，异常处理器或 {@link ErrorResponseFilter} 处理过异常的请求也记为错误
+ *
+ * @author Sean
+ */
+public class RouteLatencyFilter extends OncePerRequestFilter {
+
+    private static final String START_AT = RouteLatencyFilter.class.getName() + ".START_AT";
+
+    private final RouteLatencyRegistry registry;
+
+    public RouteLatencyFilter(RouteLatencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start;
+        if (isAsyncDispatch(request) && request.getAttribute(START_AT) instanceof Long startAt) {
+            start = startAt;
+        } else {
+            start = System.nanoTime();
+            request.setAttribute(START_AT, start);
+        }
+
+        boolean error = true;
+        try {
+            filterChain.doFilter(request, response);
+            error = false;
+        } finally {
+            if (!isAsyncStarted(request)) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                registry.record(request.getMethod(), null == pattern ? null : pattern.toString(),
+                        System.nanoTime() - start, error || isError(request, response));
+            }
+        }
+    }
+
+    protected boolean isError(HttpServletRequest request, HttpServletResponse response) {
+        return response.getStatus() >= 500
+                || null != request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE)
+                || null != request.getAttribute(ErrorResponseFilter.EXCEPTION_ATTRIBUTE);
+    }
+}
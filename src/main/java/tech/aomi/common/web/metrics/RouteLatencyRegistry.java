@@ -0,0 +1,100 @@
+package tech.aomi.common.web.metrics;
+
+import org.springframework.http.HttpMethod;
+import tech.aomi.common.web.RouteLatencyProperties;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按 请求方法+接口路径 统计耗时
+ * 接口路径为匹配到的映射模板(与 {@link tech.aomi.common.web.util.MappingUtil#allMappings} 一致)，
+ * 未匹配的请求不区分请求方法，统一记录为 {@link #UNMATCHED}；{@link HttpMethod} 以外的请求方法记录为 {@link #OTHER_METHOD}，
+ * 客户端无法通过任意请求方法、路径增加统计项
+ *
+ * @author Sean
+ */
+public class RouteLatencyRegistry {
+
+    public static final String UNMATCHED = "[unmatched]";
+
+    public static final String OTHER_METHOD = "OTHER";
+
+    public static final String ANY_METHOD = "*";
+
+    private static final Set<String> METHODS = new HashSet<>();
+
+    static {
+        for (HttpMethod method : HttpMethod.values()) {
+            METHODS.add(method.name());
+        }
+    }
+
+    private final Map<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final long windowNanos;
+
+    private final int windowSlots;
+
+    private final int stripes;
+
+    public RouteLatencyRegistry() {
+        this(new RouteLatencyProperties());
+    }
+
+    public RouteLatencyRegistry(RouteLatencyProperties properties) {
+        this.windowNanos = properties.getWindow().toNanos();
+        this.windowSlots = properties.getWindowSlots();
+        this.stripes = Integer.highestOneBit(Math.max(1, properties.getStripes()));
+    }
+
+    /**
+     * 记录一次请求耗时
+     *
+     * @param method 请求方法
+     * @param route  接口路径，为空时记录为 {@link #UNMATCHED}
+     * @param nanos  耗时(纳秒)
+     * @param error  是否出错
+     */
+    public void record(String method, String route, long nanos, boolean error) {
+        Key key = key(method, route);
+        LatencyHistogram histogram = histograms.get(key);
+        if (null == histogram) {
+            histogram = histograms.computeIfAbsent(key, k -> new LatencyHistogram(windowNanos, windowSlots, stripes));
+        }
+        histogram.record(nanos, error);
+    }
+
+    /**
+     * @return 所有接口在时间窗口内的统计，按请求次数倒序
+     */
+    public List<RouteLatency> snapshot() {
+        List<RouteLatency> result = new ArrayList<>(histograms.size());
+        histograms.forEach((key, histogram) -> result.add(RouteLatency.of(key.method, key.route, histogram.snapshot())));
+        result.sort(Comparator.comparingLong(RouteLatency::count).reversed());
+        return result;
+    }
+
+    /**
+     * @return 指定接口的统计，未记录过时返回null
+     */
+    public RouteLatency snapshot(String method, String route) {
+        Key key = key(method, route);
+        LatencyHistogram histogram = histograms.get(key);
+        return null == histogram ? null : RouteLatency.of(key.method, key.route, histogram.snapshot());
+    }
+
+    public void reset() {
+        histograms.clear();
+    }
+
+    private static Key key(String method, String route) {
+        if (null == route || UNMATCHED.equals(route)) {
+            return new Key(ANY_METHOD, UNMATCHED);
+        }
+        return new Key(null != method && METHODS.contains(method) ? method : OTHER_METHOD, route);
+    }
+
+    private record Key(String method, String route) {
+    }
+}
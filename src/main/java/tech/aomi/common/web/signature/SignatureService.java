@@ -0,0 +1,246 @@
+package tech.aomi.common.web.signature;
+
+import tech.aomi.common.constant.Common;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 签名、验签服务
+ * 按 密钥+算法 缓存已初始化的 {@link Signature} 实例，避免每次请求查找Provider和初始化密钥。
+ * 使用无锁队列借出、归还实例，可在平台线程和虚拟线程中使用；发生异常的实例状态不确定，不再归还
+ *
+ * @author Sean
+ */
+public class SignatureService {
+
+    public static final int DEFAULT_MAX_IDLE_PER_KEY = 64;
+
+    public static final int DEFAULT_MAX_KEYS = 1024;
+
+    private static final SignatureService SHARED = new SignatureService(Common.SIGN_ALGORITHMS);
+
+    private final String algorithm;
+
+    private final int maxIdlePerKey;
+
+    private final int maxKeys;
+
+    private final Map<Key, Pool> signPools = new ConcurrentHashMap<>();
+
+    private final Map<Key, Pool> verifyPools = new ConcurrentHashMap<>();
+
+    public SignatureService(String algorithm) {
+        this(algorithm, DEFAULT_MAX_IDLE_PER_KEY, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param algorithm     签名算法
+     * @param maxIdlePerKey 每个密钥最多缓存的实例数
+     * @param maxKeys       最多缓存的密钥数，超过后清空重新缓存
+     */
+    public SignatureService(String algorithm, int maxIdlePerKey, int maxKeys) {
+        this.algorithm = algorithm;
+        this.maxIdlePerKey = maxIdlePerKey;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * @return 使用 {@link Common#SIGN_ALGORITHMS} 的共享实例
+     */
+    public static SignatureService shared() {
+        return SHARED;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public byte[] sign(PrivateKey key, byte[] data) throws GeneralSecurityException {
+        return sign(key, data, 0, data.length);
+    }
+
+    public byte[] sign(PrivateKey key, byte[] data, int off, int len) throws GeneralSecurityException {
+        Pool pool = pool(signPools, key);
+        Signature signature = pool.borrowSign(key);
+        signature.update(data, off, len);
+        byte[] result = signature.sign();
+        pool.giveBack(signature);
+        return result;
+    }
+
+    public byte[] sign(PrivateKey key, ByteBuffer data) throws GeneralSecurityException {
+        Pool pool = pool(signPools, key);
+        Signature signature = pool.borrowSign(key);
+        signature.update(data);
+        byte[] result = signature.sign();
+        pool.giveBack(signature);
+        return result;
+    }
+
+    /**
+     * 签名并使用Base64编码
+     */
+    public String signBase64(PrivateKey key, byte[] data) throws GeneralSecurityException {
+        return Base64.getEncoder().encodeToString(sign(key, data));
+    }
+
+    public boolean verify(PublicKey key, byte[] data, byte[] sign) throws GeneralSecurityException {
+        return verify(key, data, 0, data.length, sign);
+    }
+
+    public boolean verify(PublicKey key, byte[] data, int off, int len, byte[] sign) throws GeneralSecurityException {
+        Pool pool = pool(verifyPools, key);
+        Signature signature = pool.borrowVerify(key);
+        signature.update(data, off, len);
+        boolean result = signature.verify(sign);
+        pool.giveBack(signature);
+        return result;
+    }
+
+    public boolean verify(PublicKey key, ByteBuffer data, byte[] sign) throws GeneralSecurityException {
+        Pool pool = pool(verifyPools, key);
+        Signature signature = pool.borrowVerify(key);
+        signature.update(data);
+        boolean result = signature.verify(sign);
+        pool.giveBack(signature);
+        return result;
+    }
+
+    /**
+     * 创建流式验签器，验签完成后实例归还到缓存中
+     *
+     * @param key 公钥
+     * @return 流式验签器
+     */
+    public StreamingVerifier verifier(PublicKey key) throws GeneralSecurityException {
+        Pool pool = pool(verifyPools, key);
+        Signature signature = pool.borrowVerify(key);
+        return new StreamingVerifier() {
+
+            private boolean done;
+
+            @Override
+            public void update(byte[] data, int off, int len) {
+                if (done) {
+                    throw new IllegalStateException("verify() has already been called");
+                }
+                try {
+                    signature.update(data, off, len);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public void update(byte b) {
+                if (done) {
+                    throw new IllegalStateException("verify() has already been called");
+                }
+                try {
+                    signature.update(b);
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public boolean verify(byte[] sign) {
+                if (done) {
+                    throw new IllegalStateException("verify() has already been called");
+                }
+                done = true;
+                try {
+                    boolean result = signature.verify(sign);
+                    pool.giveBack(signature);
+                    return result;
+                } catch (GeneralSecurityException e) {
+                    return false;
+                }
+            }
+        };
+    }
+
+    /**
+     * 验证Base64编码的签名
+     */
+    public boolean verifyBase64(PublicKey key, byte[] data, String sign) throws GeneralSecurityException {
+        return verify(key, data, Base64.getDecoder().decode(sign));
+    }
+
+    /**
+     * 密钥轮换后移除缓存的实例
+     *
+     * @param key 密钥
+     */
+    public void invalidate(Key key) {
+        signPools.remove(key);
+        verifyPools.remove(key);
+    }
+
+    private Pool pool(Map<Key, Pool> pools, Key key) {
+        Pool pool = pools.get(key);
+        if (null != pool) {
+            return pool;
+        }
+        if (pools.size() >= maxKeys) {
+            pools.clear();
+        }
+        return pools.computeIfAbsent(key, k -> new Pool());
+    }
+
+    /**
+     * 单个密钥的实例池
+     * sign()、verify() 完成后实例回到初始化后的状态，可直接复用
+     */
+    private class Pool {
+
+        private final Queue<Signature> idle = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger idleCount = new AtomicInteger();
+
+        private Signature borrowSign(PrivateKey key) throws GeneralSecurityException {
+            Signature signature = poll();
+            if (null == signature) {
+                signature = Signature.getInstance(algorithm);
+                signature.initSign(key);
+            }
+            return signature;
+        }
+
+        private Signature borrowVerify(PublicKey key) throws GeneralSecurityException {
+            Signature signature = poll();
+            if (null == signature) {
+                signature = Signature.getInstance(algorithm);
+                signature.initVerify(key);
+            }
+            return signature;
+        }
+
+        private Signature poll() {
+            Signature signature = idle.poll();
+            if (null != signature) {
+                idleCount.decrementAndGet();
+            }
+            return signature;
+        }
+
+        private void giveBack(Signature signature) {
+            if (idleCount.incrementAndGet() > maxIdlePerKey) {
+                idleCount.decrementAndGet();
+                return;
+            }
+            idle.offer(signature);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package tech.aomi.common.web.signature;
+
+/**
+ * 流式验签
+ * 请求体读取过程中依次调用 {@link #update(byte[], int, int)}，读取结束后调用 {@link #verify(byte[])}
+ *
+ * @author Sean
+ */
+public interface StreamingVerifier {
+
+    /**
+     * 追加读取到的数据
+     *
+     * @param data 数据
+     * @param off  起始位置
+     * @param len  长度
+     */
+    void update(byte[] data, int off, int len);
+
+    /**
+     * 追加读取到的单个字节
+     *
+     * @param b 数据
+     */
+    default void update(byte b) {
+        update(new byte[]{b}, 0, 1);
+    }
+
+    /**
+     * 验证签名，只能调用一次
+     *
+     * @param signature 签名
+     * @return 签名是否正确
+     */
+    boolean verify(byte[] signature);
+}
@@ -0,0 +1,165 @@
+package tech.aomi.common.web.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 字节数组缓冲池
+ * 按线程ID分段，每段若干槽位，通过CAS借出、归还，不使用ThreadLocal，适用于虚拟线程。
+ * 超过最大保留大小的数组归还时直接丢弃
+ *
+ * @author Sean
+ */
+public class BufferPool {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 8;
+
+    public static final int DEFAULT_MAX_RETAINED_SIZE = 1024 * 256;
+
+    private static final BufferPool SHARED = new BufferPool(
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) * 2,
+            4,
+            DEFAULT_MAX_RETAINED_SIZE
+    );
+
+    private final AtomicReferenceArray<byte[]> slots;
+
+    private final int stripeMask;
+
+    private final int slotsPerStripe;
+
+    private final int maxRetainedSize;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder releaseCount = new LongAdder();
+
+    private final LongAdder dropCount = new LongAdder();
+
+    /**
+     * @param stripes         分段数，必须为2的幂
+     * @param slotsPerStripe  每段槽位数
+     * @param maxRetainedSize 最大保留的数组大小
+     */
+    public BufferPool(int stripes, int slotsPerStripe, int maxRetainedSize) {
+        if (stripes <= 0 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two");
+        }
+        if (slotsPerStripe <= 0) {
+            throw new IllegalArgumentException("slotsPerStripe must be greater than 0");
+        }
+        this.slots = new AtomicReferenceArray<>(stripes * slotsPerStripe);
+        this.stripeMask = stripes - 1;
+        this.slotsPerStripe = slotsPerStripe;
+        this.maxRetainedSize = maxRetainedSize;
+    }
+
+    /**
+     * @return 全局共享的缓冲池
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * 借出一个长度不小于minSize的数组，池中没有时新建
+     *
+     * @param minSize 最小长度
+     * @return 数组，内容未清空
+     */
+    public byte[] acquire(int minSize) {
+        if (minSize <= maxRetainedSize) {
+            int base = stripe() * slotsPerStripe;
+            for (int i = 0; i < slotsPerStripe; i++) {
+                byte[] buffer = slots.get(base + i);
+                if (null != buffer && buffer.length >= minSize && slots.compareAndSet(base + i, buffer, null)) {
+                    hitCount.increment();
+                    return buffer;
+                }
+            }
+        }
+        missCount.increment();
+        return new byte[Math.max(minSize, DEFAULT_BUFFER_SIZE)];
+    }
+
+    /**
+     * 归还数组，归还后调用方不能再使用
+     *
+     * @param buffer 数组
+     */
+    public void release(byte[] buffer) {
+        if (null == buffer) {
+            return;
+        }
+        if (buffer.length > maxRetainedSize) {
+            dropCount.increment();
+            return;
+        }
+        int base = stripe() * slotsPerStripe;
+        for (int i = 0; i < slotsPerStripe; i++) {
+            if (null == slots.get(base + i) && slots.compareAndSet(base + i, null, buffer)) {
+                releaseCount.increment();
+                return;
+            }
+        }
+        dropCount.increment();
+    }
+
+    /**
+     * 使用池中的数组读取输入流的全部内容
+     *
+     * @param input          输入流
+     * @param expectedLength 预期长度，未知时小于0
+     * @return 输入流的全部内容
+     * @throws IOException 读取失败
+     */
+    public byte[] readAllBytes(InputStream input, int expectedLength) throws IOException {
+        PooledByteArrayOutputStream output = new PooledByteArrayOutputStream(this, expectedLength > 0 ? expectedLength : DEFAULT_BUFFER_SIZE);
+        try {
+            output.writeFrom(input);
+            return output.toByteArray();
+        } finally {
+            output.release();
+        }
+    }
+
+    public int getMaxRetainedSize() {
+        return maxRetainedSize;
+    }
+
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    public long releaseCount() {
+        return releaseCount.sum();
+    }
+
+    public long dropCount() {
+        return dropCount.sum();
+    }
+
+    /**
+     * @return 命中率，无借出时为 1.0
+     */
+    public double hitRate() {
+        long hit = hitCount.sum();
+        long total = hit + missCount.sum();
+        return total == 0 ? 1.0 : (double) hit / total;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        int h = (int) (id ^ (id >>> 32));
+        h ^= h >>> 16;
+        return h & stripeMask;
+    }
+}
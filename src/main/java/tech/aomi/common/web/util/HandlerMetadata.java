@@ -0,0 +1,92 @@
+package tech.aomi.common.web.util;
+
+import lombok.Getter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import tech.aomi.common.web.controller.EnableSignature;
+import tech.aomi.common.web.interceptor.With;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 请求处理方法的注解信息
+ *
+ * @author Sean
+ */
+@Getter
+public class HandlerMetadata {
+
+    @SuppressWarnings("unchecked")
+    private static final Class<? extends HandlerInterceptor>[] NONE = new Class[0];
+
+    private static final InterceptorGroup[] NO_GROUPS = new InterceptorGroup[0];
+
+    /**
+     * 是否启用签名 {@link EnableSignature}
+     */
+    private final boolean signature;
+
+    /**
+     * 拦截器 {@link With}，类上的在前，方法上的在后
+     */
+    private final Class<? extends HandlerInterceptor>[] interceptors;
+
+    /**
+     * 按 {@link With} 注解分组的拦截器，顺序与 {@link #interceptors} 一致
+     */
+    private final InterceptorGroup[] groups;
+
+    public HandlerMetadata(boolean signature, InterceptorGroup[] groups) {
+        this.signature = signature;
+        this.groups = groups;
+        Class<? extends HandlerInterceptor>[] all = NONE;
+        for (InterceptorGroup group : groups) {
+            int length = all.length;
+            all = Arrays.copyOf(all, length + group.interceptors().length);
+            System.arraycopy(group.interceptors(), 0, all, length, group.interceptors().length);
+        }
+        this.interceptors = all;
+    }
+
+    public boolean hasInterceptors() {
+        return interceptors.length > 0;
+    }
+
+    /**
+     * 解析注解，包括父类、接口方法上声明的，桥接方法以及组合注解(元注解)
+     *
+     * @param handlerType 处理类
+     * @param method      处理方法
+     * @return 注解信息
+     */
+    public static HandlerMetadata of(Class<?> handlerType, Method method) {
+        boolean signature = AnnotatedElementUtils.hasAnnotation(handlerType, EnableSignature.class)
+                || AnnotatedElementUtils.hasAnnotation(method, EnableSignature.class);
+
+        List<InterceptorGroup> groups = new ArrayList<>(2);
+        addGroups(groups, handlerType);
+        addGroups(groups, method);
+        return new HandlerMetadata(signature, groups.isEmpty() ? NO_GROUPS : groups.toArray(NO_GROUPS));
+    }
+
+    private static void addGroups(List<InterceptorGroup> groups, AnnotatedElement element) {
+        for (With with : AnnotatedElementUtils.findAllMergedAnnotations(element, With.class)) {
+            if (with.value().length > 0) {
+                groups.add(new InterceptorGroup(with.value(), with.parallel() && with.value().length > 1));
+            }
+        }
+    }
+
+    /**
+     * 同一个 {@link With} 注解中的拦截器
+     *
+     * @param interceptors 拦截器
+     * @param parallel     是否并行执行 preHandle
+     */
+    public record InterceptorGroup(Class<? extends HandlerInterceptor>[] interceptors, boolean parallel) {
+    }
+}
@@ -0,0 +1,59 @@
+package tech.aomi.common.web.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 请求处理方法注解索引
+ * 启动时从 {@link RequestMappingHandlerMapping} 中读取所有处理方法，预先解析 {@link HandlerMetadata}，
+ * 请求时按 处理类+方法 直接查找，未索引的方法在第一次访问时解析
+ *
+ * @author Sean
+ */
+@Slf4j
+public class HandlerMetadataIndex implements ApplicationListener<ContextRefreshedEvent> {
+
+    private final Map<Class<?>, Map<Method, HandlerMetadata>> index = new ConcurrentHashMap<>();
+
+    public HandlerMetadata get(HandlerMethod handlerMethod) {
+        return get(handlerMethod.getBeanType(), handlerMethod.getMethod());
+    }
+
+    public HandlerMetadata get(Class<?> handlerType, Method method) {
+        Map<Method, HandlerMetadata> methods = index.get(handlerType);
+        if (null != methods) {
+            HandlerMetadata metadata = methods.get(method);
+            if (null != metadata) {
+                return metadata;
+            }
+        }
+        return index.computeIfAbsent(handlerType, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> HandlerMetadata.of(handlerType, m));
+    }
+
+    /**
+     * 索引所有请求处理方法
+     *
+     * @param requestMappingHandlerMapping RequestMappingHandlerMapping
+     */
+    public void index(RequestMappingHandlerMapping requestMappingHandlerMapping) {
+        requestMappingHandlerMapping.getHandlerMethods().forEach((requestMappingInfo, handlerMethod) -> get(handlerMethod));
+    }
+
+    public int size() {
+        return index.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class).values().forEach(this::index);
+        LOGGER.debug("请求处理方法索引完成: {}", size());
+    }
+}
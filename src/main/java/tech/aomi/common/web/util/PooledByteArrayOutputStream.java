@@ -0,0 +1,116 @@
+package tech.aomi.common.web.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 使用 {@link BufferPool} 数组的输出流
+ * 使用完毕后必须调用 {@link #release()} 归还数组
+ *
+ * @author Sean
+ */
+public class PooledByteArrayOutputStream extends OutputStream {
+
+    private final BufferPool pool;
+
+    private byte[] buf;
+
+    private int count;
+
+    public PooledByteArrayOutputStream(BufferPool pool, int initialSize) {
+        this.pool = pool;
+        this.buf = pool.acquire(initialSize);
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buf[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buf, count, len);
+        count += len;
+    }
+
+    /**
+     * 直接读取到内部数组，不经过中间缓冲
+     *
+     * @param input 输入流
+     * @return 读取的字节数
+     * @throws IOException 读取失败
+     */
+    public long writeFrom(InputStream input) throws IOException {
+        long total = 0;
+        int n;
+        while (true) {
+            if (count == buf.length) {
+                // 数组已满时先探测是否结束，长度已知的请求体不需要扩容
+                int b = input.read();
+                if (b < 0) {
+                    return total;
+                }
+                write(b);
+                total++;
+            }
+            n = input.read(buf, count, buf.length - count);
+            if (n < 0) {
+                return total;
+            }
+            count += n;
+            total += n;
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return 内部数组，仅前 {@link #size()} 个字节有效，归还后不能再使用
+     */
+    public byte[] buffer() {
+        return buf;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    public void reset() {
+        count = 0;
+    }
+
+    /**
+     * 归还内部数组
+     */
+    public void release() {
+        byte[] b = buf;
+        buf = null;
+        count = 0;
+        pool.release(b);
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity <= buf.length) {
+            return;
+        }
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("Required array size too large");
+        }
+        int newCapacity = Math.max(minCapacity, buf.length << 1);
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        byte[] newBuf = pool.acquire(newCapacity);
+        System.arraycopy(buf, 0, newBuf, 0, count);
+        pool.release(buf);
+        buf = newBuf;
+    }
+}
@@ -0,0 +1,222 @@
+package tech.aomi.common.web.util;
+
+import lombok.extern.slf4j.Slf4j;
+import tech.aomi.common.web.RequestBodyProperties;
+import tech.aomi.common.web.controller.RequestBodyTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 有大小限制的请求体
+ * 不超过内存阈值时保存在内存中，超过后写入临时文件，读取时使用内存映射
+ *
+ * @author Sean
+ */
+@Slf4j
+public class SpooledRequestBody implements Closeable {
+
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final byte[] bytes;
+
+    private final Path file;
+
+    private final long size;
+
+    private ByteBuffer mapped;
+
+    private SpooledRequestBody(byte[] bytes, Path file, long size) {
+        this.bytes = bytes;
+        this.file = file;
+        this.size = size;
+    }
+
+    /**
+     * 读取请求体
+     *
+     * @param input         输入流
+     * @param contentLength 请求头中的长度，未知时小于0
+     * @param properties    大小限制配置
+     * @param pool          缓冲池
+     * @return 请求体
+     * @throws IOException                  读取失败
+     * @throws RequestBodyTooLargeException 超过最大限制
+     */
+    public static SpooledRequestBody read(InputStream input, long contentLength, RequestBodyProperties properties, BufferPool pool) throws IOException {
+        long threshold = null == properties.getMemoryThreshold() ? MAX_ARRAY_SIZE : Math.min(properties.getMemoryThreshold().toBytes(), MAX_ARRAY_SIZE);
+        return read(input, contentLength, properties, threshold, true, pool);
+    }
+
+    /**
+     * 读取请求体到内存，不写入临时文件，只检查最大限制
+     *
+     * @param input         输入流
+     * @param contentLength 请求头中的长度，未知时小于0
+     * @param properties    大小限制配置
+     * @param pool          缓冲池
+     * @return 请求体
+     * @throws IOException                  读取失败
+     * @throws RequestBodyTooLargeException 超过最大限制
+     */
+    public static byte[] readInMemory(InputStream input, long contentLength, RequestBodyProperties properties, BufferPool pool) throws IOException {
+        return read(input, contentLength, properties, MAX_ARRAY_SIZE, false, pool).toByteArray();
+    }
+
+    private static SpooledRequestBody read(InputStream input, long contentLength, RequestBodyProperties properties, long threshold, boolean spillAllowed, BufferPool pool) throws IOException {
+        long maxSize = null == properties.getMaxSize() ? -1 : properties.getMaxSize().toBytes();
+        checkSize(contentLength, maxSize);
+
+        int initialSize = contentLength > 0 && contentLength <= threshold ? (int) contentLength : BufferPool.DEFAULT_BUFFER_SIZE;
+        PooledByteArrayOutputStream memory = new PooledByteArrayOutputStream(pool, initialSize);
+        byte[] buffer = pool.acquire(BufferPool.DEFAULT_BUFFER_SIZE);
+        try {
+            int n;
+            while (memory.size() <= threshold) {
+                int len = (int) Math.min(buffer.length, threshold + 1 - memory.size());
+                n = input.read(buffer, 0, len);
+                if (n < 0) {
+                    return new SpooledRequestBody(memory.toByteArray(), null, memory.size());
+                }
+                memory.write(buffer, 0, n);
+                checkSize(memory.size(), maxSize);
+            }
+            if (!spillAllowed) {
+                throw new RequestBodyTooLargeException(MAX_ARRAY_SIZE);
+            }
+            return spill(input, memory, buffer, maxSize, properties.getTempDir());
+        } finally {
+            memory.release();
+            pool.release(buffer);
+        }
+    }
+
+    private static SpooledRequestBody spill(InputStream input, PooledByteArrayOutputStream memory, byte[] buffer, long maxSize, String tempDir) throws IOException {
+        Path dir = null == tempDir || tempDir.isEmpty() ? Paths.get(System.getProperty("java.io.tmpdir")) : Paths.get(tempDir);
+        Path file = Files.createTempFile(dir, "request-body-", ".tmp");
+        long size = memory.size();
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.WRITE)) {
+            out.write(memory.buffer(), 0, memory.size());
+            int n;
+            while ((n = input.read(buffer)) >= 0) {
+                size += n;
+                checkSize(size, maxSize);
+                out.write(buffer, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        LOGGER.debug("请求体写入临时文件: {}, {}", file, size);
+        return new SpooledRequestBody(null, file, size);
+    }
+
+    private static void checkSize(long size, long maxSize) {
+        if (maxSize >= 0 && size > maxSize) {
+            throw new RequestBodyTooLargeException(maxSize);
+        }
+    }
+
+    public boolean isInMemory() {
+        return null == file;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * 获取请求体字节数组，内存中的请求体直接返回，不做拷贝
+     *
+     * @return 请求体
+     */
+    public byte[] toByteArray() throws IOException {
+        if (isInMemory()) {
+            return bytes;
+        }
+        if (size > MAX_ARRAY_SIZE) {
+            throw new RequestBodyTooLargeException(MAX_ARRAY_SIZE);
+        }
+        byte[] result = new byte[(int) size];
+        asByteBuffer().get(result);
+        return result;
+    }
+
+    /**
+     * @return 只读的请求体，临时文件使用内存映射
+     */
+    public ByteBuffer asByteBuffer() throws IOException {
+        if (isInMemory()) {
+            return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        }
+        if (null == mapped) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+        return mapped.duplicate();
+    }
+
+    public InputStream getInputStream() throws IOException {
+        if (isInMemory()) {
+            return new ByteArrayInputStream(bytes);
+        }
+        return new ByteBufferInputStream(asByteBuffer());
+    }
+
+    /**
+     * 删除临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (null != file) {
+            mapped = null;
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xff) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public long skip(long n) {
+            int k = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + k);
+            return k;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package tech.aomi.common.web.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import tech.aomi.common.exception.ErrorCode;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultTest {
+
+    @Test
+    void singlePayloadIsReturnedAsIs() {
+        Map<String, Object> payload = Map.of("id", 1);
+        Result result = Result.success(payload);
+
+        assertSame(payload, result.getBody().getPayload());
+        assertTrue(result.hasBody());
+    }
+
+    @Test
+    void noPayload() {
+        Result result = Result.create(ErrorCode.PARAMS_ERROR.getCode(), "参数错误");
+        result.add(null);
+
+        assertNull(result.getBody().getPayload());
+        assertFalse(result.hasBody());
+        assertEquals(ErrorCode.PARAMS_ERROR.getCode(), result.getBody().getStatus());
+        assertEquals("参数错误", result.getBody().getDescribe());
+    }
+
+    @Test
+    void getBodyIsMemoizedUntilPayloadChanges() {
+        Result result = new Result();
+        result.add("a");
+
+        Result.Entity body = result.getBody();
+        assertEquals("a", body.getPayload());
+
+        result.put("k", "v");
+        assertEquals(List.of("a", Map.of("k", "v")), result.getBody().getPayload());
+        Object payload = result.getBody().getPayload();
+        assertSame(payload, result.getBody().getPayload());
+        assertSame(body, result.getBody());
+
+        result.add("b");
+        assertEquals(List.of("a", "b", Map.of("k", "v")), result.getBody().getPayload());
+    }
+
+    @Test
+    void multipleAddsBecomeList() {
+        Result result = new Result();
+        result.add("a");
+        result.add("b");
+
+        Object payload = result.getBody().getPayload();
+        assertEquals(List.of("a", "b"), payload);
+        assertSame(payload, result.getBody().getPayload());
+    }
+
+    @Test
+    void mapOnlyPayload() {
+        Result result = new Result();
+        result.put("k", "v");
+
+        assertEquals(Map.of("k", "v"), result.getBody().getPayload());
+    }
+
+    @Test
+    void defaultHeadersAreJson() {
+        assertEquals(MediaType.APPLICATION_JSON, Result.success().getHeaders().getContentType());
+    }
+
+    @Test
+    void customHeadersKeepValuesAndUseJson() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Test", "1");
+        headers.setContentType(MediaType.TEXT_PLAIN);
+
+        Result result = new Result(headers);
+
+        assertEquals("1", result.getHeaders().getFirst("X-Test"));
+        assertEquals(MediaType.APPLICATION_JSON, result.getHeaders().getContentType());
+    }
+}
@@ -0,0 +1,91 @@
+package tech.aomi.common.web.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestIdGeneratorTest {
+
+    private static final Pattern HEX = Pattern.compile("[0-9a-f]{32}");
+
+    private static final Pattern CROCKFORD_BASE32 = Pattern.compile("[0-7][0-9A-HJKMNP-TV-Z]{25}");
+
+    private static final String BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @Test
+    void randomIsLowerHex() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(HEX.matcher(RequestIdGenerator.random().generate()).matches());
+        }
+    }
+
+    @Test
+    void uuidMatchesLegacyFormat() {
+        String id = RequestIdGenerator.uuid().generate();
+        assertTrue(HEX.matcher(id).matches());
+        // 版本位
+        assertEquals('4', id.charAt(12));
+    }
+
+    @Test
+    void ulidLengthAndCharacterSet() {
+        for (int i = 0; i < 1000; i++) {
+            String id = RequestIdGenerator.ulid().generate();
+            assertEquals(26, id.length());
+            assertTrue(CROCKFORD_BASE32.matcher(id).matches(), id);
+        }
+    }
+
+    @Test
+    void ulidEncodesCurrentTime() {
+        long before = System.currentTimeMillis();
+        String id = RequestIdGenerator.ulid().generate();
+        long after = System.currentTimeMillis();
+
+        long time = decodeTime(id);
+        assertTrue(time >= before && time <= after, id);
+    }
+
+    @Test
+    void ulidIsOrderedAcrossMilliseconds() throws InterruptedException {
+        String previous = RequestIdGenerator.ulid().generate();
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(2);
+            String next = RequestIdGenerator.ulid().generate();
+            assertTrue(next.compareTo(previous) > 0, previous + " >= " + next);
+            assertTrue(decodeTime(next) > decodeTime(previous));
+            previous = next;
+        }
+    }
+
+    @Test
+    void idsAreUnique() {
+        for (RequestIdGenerator generator : new RequestIdGenerator[]{RequestIdGenerator.random(), RequestIdGenerator.ulid(), RequestIdGenerator.uuid()}) {
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < 10000; i++) {
+                assertTrue(ids.add(generator.generate()));
+            }
+        }
+    }
+
+    @Test
+    void ofResolvesBuiltInNames() {
+        assertSame(RequestIdGenerator.random(), RequestIdGenerator.of(null));
+        assertSame(RequestIdGenerator.random(), RequestIdGenerator.of("RANDOM"));
+        assertSame(RequestIdGenerator.ulid(), RequestIdGenerator.of("ulid"));
+        assertSame(RequestIdGenerator.uuid(), RequestIdGenerator.of("uuid"));
+        assertThrows(IllegalArgumentException.class, () -> RequestIdGenerator.of("snowflake"));
+    }
+
+    private static long decodeTime(String ulid) {
+        long time = 0;
+        for (int i = 0; i < 10; i++) {
+            time = (time << 5) | BASE32.indexOf(ulid.charAt(i));
+        }
+        return time;
+    }
+}